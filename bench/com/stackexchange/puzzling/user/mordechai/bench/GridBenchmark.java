@@ -0,0 +1,154 @@
+package com.stackexchange.puzzling.user.mordechai.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.stackexchange.puzzling.user.mordechai.grid.Grid;
+import com.stackexchange.puzzling.user.mordechai.grid.TiledGrid;
+
+/*
+ * Core Grid operations for each storage backend across grid sizes. The
+ * point lookups are measured per access, over a fixed set of random
+ * coordinates; everything else per whole-grid operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+	private static final int POINTS = 1024;
+
+	@Param({ "10", "100", "500", "2000" })
+	private int size;
+
+	@Param({ "flat", "persistent", "tiled" })
+	private String backend;
+
+	private Grid<Integer> grid;
+	private Grid<Integer> target;
+	private String csv;
+
+	private int[] xs;
+	private int[] ys;
+
+	static Grid<Integer> create(String backend, int width, int height) {
+		switch (backend) {
+		case "flat":
+			return new Grid<>(width, height);
+		case "persistent":
+			return Grid.persistent(width, height);
+		case "tiled":
+			return new TiledGrid<>(width, height);
+		default:
+			throw new IllegalArgumentException("backend: " + backend);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		grid = create(backend, size, size);
+		target = create(backend, size, size);
+
+		SplittableRandom random = new SplittableRandom(42);
+		grid.fill((x, y, old) -> random.nextInt(10));
+		csv = grid.toString();
+
+		xs = new int[POINTS];
+		ys = new int[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			xs[i] = random.nextInt(size);
+			ys[i] = random.nextInt(size);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int get() {
+		int sum = 0;
+		for (int i = 0; i < POINTS; i++) {
+			sum += grid.get(xs[i], ys[i]);
+		}
+
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public void set() {
+		for (int i = 0; i < POINTS; i++) {
+			grid.set(xs[i], ys[i], i & 7);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public void getSurroundingCells(Blackhole bh) {
+		for (int i = 0; i < POINTS; i++) {
+			bh.consume(grid.getSurroundingCells(xs[i], ys[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int countSurrounding() {
+		int count = 0;
+		for (int i = 0; i < POINTS; i++) {
+			count += grid.countSurrounding(xs[i], ys[i], v -> v > 4);
+		}
+
+		return count;
+	}
+
+	@Benchmark
+	public int count() {
+		return grid.count(v -> v > 4);
+	}
+
+	@Benchmark
+	public void fill() {
+		target.fill(Integer.valueOf(7));
+	}
+
+	@Benchmark
+	public void fillFunction() {
+		target.fill((x, y, old) -> x ^ y);
+	}
+
+	@Benchmark
+	public Grid<Integer> branch() {
+		return grid.branch();
+	}
+
+	@Benchmark
+	public void copyTo() {
+		grid.copyTo(target);
+	}
+
+	@Benchmark
+	public Grid<Integer> fromString() {
+		return Grid.fromString(csv, (x, y, token) -> Integer.valueOf(token));
+	}
+
+	@Benchmark
+	public String toGridString() {
+		return grid.toGridString(String::valueOf, ",");
+	}
+}
@@ -0,0 +1,32 @@
+package com.stackexchange.puzzling.user.mordechai.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import com.stackexchange.puzzling.user.mordechai.mosaic.Mosaic;
+
+/*
+ * The puzzles bundled with the UI, read from the class path without touching
+ * any JavaFX class.
+ */
+public final class Presets {
+
+	public static final int COUNT = 12;
+
+	private Presets() {
+	}
+
+	public static Mosaic load(int preset) {
+		String name = "fx/resources/presets/Preset " + preset + ".csv";
+
+		try (InputStream in = Mosaic.class.getResourceAsStream(name)) {
+			if (in == null)
+				throw new IllegalArgumentException("No such preset: " + preset);
+
+			return Mosaic.loadCSV(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
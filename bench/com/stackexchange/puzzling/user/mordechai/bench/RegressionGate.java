@@ -0,0 +1,358 @@
+package com.stackexchange.puzzling.user.mordechai.bench;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+
+import com.stackexchange.puzzling.user.mordechai.mosaic.Mosaic;
+import com.stackexchange.puzzling.user.mordechai.mosaic.solvers.IllegalClueStateException;
+import com.stackexchange.puzzling.user.mordechai.mosaic.solvers.RecursionReport;
+import com.stackexchange.puzzling.user.mordechai.mosaic.solvers.RecursionSolver;
+
+/*
+ * Headless performance gate for the solver and the clue generator. Runs a
+ * fixed corpus, the fast presets plus puzzles generated from seeded random
+ * pixels, and either records the results as a baseline (--record) or compares
+ * against one, exiting with status 1 if anything got slower, allocates more,
+ * does more work or comes out differently.
+ *
+ * Wall time and allocation are the median over several runs and are allowed
+ * to drift within a tolerance; steps, recursions, backtracks and results are
+ * deterministic and must match exactly unless told otherwise. Tiny cases get
+ * an absolute allowance on top, or timer and allocator noise would trip them.
+ * Allocation is counted on the calling thread only.
+ *
+ * Any change to the corpus must bump CORPUS_VERSION, which invalidates older
+ * baselines instead of silently comparing different puzzles.
+ */
+public class RegressionGate {
+
+	public static final int CORPUS_VERSION = 1;
+
+	private static final int[] PRESETS = { 1, 2, 3, 4, 5, 6, 7, 8, 10 };
+
+	// width, height, seed
+	private static final int[][] SYNTHETIC = { { 8, 8, 1 }, { 10, 10, 2 }, { 12, 12, 3 } };
+	private static final float SYNTHETIC_LEVEL = 0.5f;
+
+	private static final String[] TIMED = { "time", "alloc" };
+
+	private Path baseline = Paths.get("bench", "baseline.properties");
+	private boolean record;
+	private int runs = 5;
+	private double timeTolerance = 0.25;
+	private long timeFloor = 5;
+	private double allocTolerance = 0.10;
+	private long allocFloor = 64 * 1024;
+	private double countTolerance = 0;
+
+	public static void main(String[] args) throws IOException {
+		RegressionGate gate = new RegressionGate();
+
+		try {
+			gate.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: RegressionGate [--record] [--baseline <file>] [--runs <n>]"
+					+ " [--time-tolerance <fraction>] [--time-floor <ms>]"
+					+ " [--alloc-tolerance <fraction>] [--alloc-floor <bytes>] [--count-tolerance <fraction>]");
+			System.exit(2);
+		}
+
+		System.exit(gate.run());
+	}
+
+	private void parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+
+			if (arg.equals("--record")) {
+				record = true;
+				continue;
+			}
+
+			if (i + 1 == args.length)
+				throw new IllegalArgumentException("Missing value for " + arg);
+
+			String value = args[++i];
+			try {
+				switch (arg) {
+				case "--baseline":
+					baseline = Paths.get(value);
+					break;
+				case "--runs":
+					runs = Integer.parseInt(value);
+					break;
+				case "--time-tolerance":
+					timeTolerance = Double.parseDouble(value);
+					break;
+				case "--time-floor":
+					timeFloor = Long.parseLong(value);
+					break;
+				case "--alloc-tolerance":
+					allocTolerance = Double.parseDouble(value);
+					break;
+				case "--alloc-floor":
+					allocFloor = Long.parseLong(value);
+					break;
+				case "--count-tolerance":
+					countTolerance = Double.parseDouble(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + arg);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Not a number for " + arg + ": " + value);
+			}
+		}
+
+		if (runs < 1)
+			throw new IllegalArgumentException("--runs must be at least 1");
+	}
+
+	private int run() throws IOException {
+		Map<String, String> results = measure();
+
+		if (record) {
+			save(results);
+			System.out.println("Baseline written to " + baseline);
+			return 0;
+		}
+
+		if (!Files.exists(baseline)) {
+			System.err.println("No baseline at " + baseline + ", record one with --record.");
+			return 2;
+		}
+
+		Properties expected = load();
+		String version = expected.getProperty("corpus.version");
+		if (!String.valueOf(CORPUS_VERSION).equals(version)) {
+			System.err.println("Baseline is for corpus version " + version + ", this is version " + CORPUS_VERSION
+					+ "; record a new one with --record.");
+			return 2;
+		}
+
+		List<String> failures = compare(expected, results);
+		if (failures.isEmpty()) {
+			System.out.println("No regressions against " + baseline);
+			return 0;
+		}
+
+		System.err.println();
+		System.err.println("PERFORMANCE REGRESSION: " + failures.size() + " check(s) failed against " + baseline);
+		for (String failure : failures) {
+			System.err.println("  " + failure);
+		}
+
+		return 1;
+	}
+
+	/*
+	 * Results of the whole corpus as "case.metric" keys, in corpus order.
+	 */
+	private Map<String, String> measure() {
+		Map<String, String> results = new LinkedHashMap<>();
+		results.put("corpus.version", String.valueOf(CORPUS_VERSION));
+
+		for (int preset : PRESETS) {
+			Mosaic puzzle = Presets.load(preset);
+			results.putAll(solve("preset-" + preset, puzzle));
+		}
+
+		for (int[] spec : SYNTHETIC) {
+			String name = "synthetic-" + spec[0] + "x" + spec[1] + "-" + spec[2];
+			Mosaic puzzle = generate(name, spec[0], spec[1], spec[2], results);
+			results.putAll(solve(name, puzzle));
+		}
+
+		return results;
+	}
+
+	private Map<String, String> solve(String name, Mosaic puzzle) {
+		long[] times = new long[runs];
+		long[] allocs = new long[runs];
+		Map<String, String> results = new LinkedHashMap<>();
+
+		for (int i = -1; i < runs; i++) {
+			RecursionSolver solver = new RecursionSolver(new Mosaic(puzzle));
+
+			long alloc = allocatedBytes();
+			long start = System.nanoTime();
+			String result;
+			try {
+				solver.start();
+				result = solver.getState().toString();
+			} catch (IllegalClueStateException e) {
+				result = e.getClass().getSimpleName();
+			}
+			long time = System.nanoTime() - start;
+			alloc = allocatedBytes() - alloc;
+
+			// first run is warm-up
+			if (i < 0)
+				continue;
+
+			times[i] = time;
+			allocs[i] = alloc;
+
+			RecursionReport report = solver.getReport();
+			results.put(name + ".result", result);
+			results.put(name + ".steps", String.valueOf(report.getSteps()));
+			results.put(name + ".recursions", String.valueOf(report.getRecursions()));
+			results.put(name + ".backtracks", String.valueOf(report.getBacktracks()));
+		}
+
+		results.put(name + ".time", String.valueOf(median(times) / 1_000_000));
+		results.put(name + ".alloc", String.valueOf(median(allocs)));
+		print(name, results);
+
+		return results;
+	}
+
+	/*
+	 * Full clues over seeded random pixels, reduced by the clue generator with
+	 * the same seed; the generation itself is measured as "<name>-gen".
+	 */
+	private Mosaic generate(String name, int width, int height, int seed, Map<String, String> results) {
+		long[] times = new long[runs];
+		long[] allocs = new long[runs];
+		Mosaic puzzle = null;
+
+		for (int i = -1; i < runs; i++) {
+			Random random = new Random(seed);
+			Mosaic mosaic = new Mosaic(width, height);
+			for (int j = 0; j < mosaic.length(); j++) {
+				mosaic.setPixel(j, random.nextBoolean());
+			}
+
+			long alloc = allocatedBytes();
+			long start = System.nanoTime();
+			mosaic.clueGenerator(SYNTHETIC_LEVEL, true, random, true).forEachRemaining(n -> {
+			});
+			long time = System.nanoTime() - start;
+			alloc = allocatedBytes() - alloc;
+
+			puzzle = mosaic;
+			if (i >= 0) {
+				times[i] = time;
+				allocs[i] = alloc;
+			}
+		}
+
+		Map<String, String> gen = new LinkedHashMap<>();
+		gen.put(name + "-gen.clues", String.valueOf(puzzle.count(clue -> clue.getClue() >= 0)));
+		gen.put(name + "-gen.time", String.valueOf(median(times) / 1_000_000));
+		gen.put(name + "-gen.alloc", String.valueOf(median(allocs)));
+		print(name + "-gen", gen);
+		results.putAll(gen);
+
+		return puzzle;
+	}
+
+	private List<String> compare(Properties expected, Map<String, String> results) {
+		List<String> failures = new ArrayList<>();
+
+		for (String key : new TreeMap<>(results).keySet()) {
+			String actual = results.get(key);
+			String base = expected.getProperty(key);
+
+			if (base == null) {
+				failures.add(key + ": missing from baseline");
+				continue;
+			}
+
+			String metric = key.substring(key.lastIndexOf('.') + 1);
+			if (metric.equals("result") || metric.equals("version")) {
+				if (!base.equals(actual))
+					failures.add(key + ": " + actual + ", baseline " + base);
+				continue;
+			}
+
+			long now = Long.parseLong(actual);
+			long then = Long.parseLong(base);
+			boolean timed = Arrays.asList(TIMED).contains(metric);
+
+			double tolerance = metric.equals("time") ? timeTolerance
+					: metric.equals("alloc") ? allocTolerance : countTolerance;
+			long limit = (long) Math.floor(then * (1 + tolerance));
+			if (metric.equals("time"))
+				limit = Math.max(limit, then + timeFloor);
+			else if (metric.equals("alloc"))
+				limit = Math.max(limit, then + allocFloor);
+
+			if (now > limit) {
+				failures.add(String.format("%s: %d, baseline %d (%+.1f%%, limit %d)", key, now, then,
+						then == 0 ? 100.0 : (now - then) * 100.0 / then, limit));
+			} else if (!timed && now != then) {
+				System.out.println("note: " + key + " changed from " + then + " to " + now + " within tolerance");
+			}
+		}
+
+		for (String key : expected.stringPropertyNames()) {
+			if (!results.containsKey(key))
+				failures.add(key + ": in baseline but not measured");
+		}
+
+		return failures;
+	}
+
+	private Properties load() throws IOException {
+		Properties properties = new Properties();
+		try (Reader in = Files.newBufferedReader(baseline, StandardCharsets.ISO_8859_1)) {
+			properties.load(in);
+		}
+
+		return properties;
+	}
+
+	/*
+	 * Sorted, one key per line and without the timestamp Properties.store()
+	 * adds, so baselines diff cleanly under version control.
+	 */
+	private void save(Map<String, String> results) throws IOException {
+		Path parent = baseline.toAbsolutePath().getParent();
+		if (parent != null)
+			Files.createDirectories(parent);
+
+		try (Writer out = Files.newBufferedWriter(baseline, StandardCharsets.ISO_8859_1)) {
+			out.write("# RegressionGate baseline; time in ms, alloc in bytes\n");
+			for (Map.Entry<String, String> entry : new TreeMap<>(results).entrySet()) {
+				out.write(entry.getKey() + "=" + entry.getValue() + "\n");
+			}
+		}
+	}
+
+	private static void print(String name, Map<String, String> results) {
+		StringBuilder line = new StringBuilder(String.format("%-24s", name));
+		for (Map.Entry<String, String> entry : results.entrySet()) {
+			String key = entry.getKey();
+			line.append(' ').append(key.substring(key.lastIndexOf('.') + 1)).append('=').append(entry.getValue());
+		}
+
+		System.out.println(line);
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+
+		return sorted[sorted.length / 2];
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+	}
+}
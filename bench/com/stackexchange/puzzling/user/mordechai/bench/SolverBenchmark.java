@@ -0,0 +1,103 @@
+package com.stackexchange.puzzling.user.mordechai.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.stackexchange.puzzling.user.mordechai.mosaic.Mosaic;
+import com.stackexchange.puzzling.user.mordechai.mosaic.solvers.IllegalClueStateException;
+import com.stackexchange.puzzling.user.mordechai.mosaic.solvers.RecursionSolver;
+
+/*
+ * RecursionSolver.start() on the bundled presets under every combination of
+ * solver options, in both the child-per-branch and the single-board mode. A
+ * puzzle the options can't handle (e.g. one requiring advanced logic without
+ * it) is measured up to the point it gives up.
+ * 
+ * Presets 9, 11 and 12 take minutes per solve and are left out by default;
+ * add them with -p preset=9,11,12.
+ * 
+ * Run through main() to get the GC profiler, and with it allocation rates,
+ * by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+	@Param({ "1", "2", "3", "4", "5", "6", "7", "8", "10" })
+	private int preset;
+
+	@Param({ "false", "true" })
+	private boolean checkAmbiguity;
+
+	@Param({ "false", "true" })
+	private boolean advancedLogic;
+
+	@Param({ "false", "true" })
+	private boolean loopback;
+
+	@Param({ "false", "true" })
+	private boolean singleBoard;
+
+	private Mosaic puzzle;
+	private RecursionSolver solver;
+
+	@Setup(Level.Trial)
+	public void load() {
+		puzzle = Presets.load(preset);
+	}
+
+	/*
+	 * Solving fills the mosaic in place, so every solve needs a fresh copy.
+	 * Solves take milliseconds at least, which keeps the per-invocation setup
+	 * overhead negligible.
+	 */
+	@Setup(Level.Invocation)
+	public void prepare() {
+		solver = new RecursionSolver(new Mosaic(puzzle));
+		solver.checkAmbiguity(checkAmbiguity);
+		solver.useAdvancedLogic(advancedLogic);
+		solver.useLoopbackEnhancement(loopback);
+		solver.useSingleBoard(singleBoard);
+	}
+
+	@Benchmark
+	public com.stackexchange.puzzling.user.mordechai.mosaic.solvers.State solve() {
+		try {
+			solver.start();
+		} catch (IllegalClueStateException e) {
+			// measured anyway; the state tells what happened
+		}
+
+		return solver.getState();
+	}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(SolverBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,176 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.function.IntBinaryOperator;
+
+/*
+ * Shape of a rectangular window into a row-major backing store of the given
+ * stride. Holds everything that doesn't depend on the element type, i.e.
+ * range checking, coordinate conversion and the mapping to backing indices.
+ */
+public abstract class AbstractGrid {
+
+	private int x;
+	private int y;
+	private int width;
+	private int height;
+
+	private int stride;
+	private int offset;
+
+	private GridTopology topology;
+
+	protected AbstractGrid(int stride, int x, int y, int width, int height) {
+		this.stride = stride;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+
+		offset = y * stride + x;
+	}
+
+	protected int getX() {
+		return x;
+	}
+
+	protected int getY() {
+		return y;
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	public int length() {
+		return width() * height();
+	}
+
+	public GridTopology topology() {
+		if (topology == null)
+			topology = GridTopology.of(width, height);
+
+		return topology;
+	}
+
+	/*
+	 * True if the window spans whole rows of the backing store, in which case
+	 * linear indices map to consecutive backing indices.
+	 */
+	protected final boolean isContiguous() {
+		return width == stride;
+	}
+
+	protected final int matrixIndex(int x, int y) {
+		return offset + y * stride + x;
+	}
+
+	protected final int matrixIndex(int linear) {
+		if (width == stride)
+			return offset + linear;
+
+		return matrixIndex(linear % width, linear / width);
+	}
+
+	protected void checkRange(int x, int y) {
+		if (x < 0)
+			throw new IndexOutOfBoundsException("x < 0: " + x);
+		if (x >= width)
+			throw new IndexOutOfBoundsException("x >= width: " + x);
+		if (y < 0)
+			throw new IndexOutOfBoundsException("y < 0: " + y);
+		if (y >= height)
+			throw new IndexOutOfBoundsException("y >= height: " + y);
+	}
+
+	protected void checkRange(int linear) {
+		if (linear < 0)
+			throw new IndexOutOfBoundsException("index < 0: " + linear);
+		if (linear >= length())
+			throw new IndexOutOfBoundsException("index >= length: " + linear);
+	}
+
+	protected void checkView(int x, int y, int width, int height) {
+		if (x < 0)
+			throw new IllegalArgumentException(x + ": x < 0");
+		if (y < 0)
+			throw new IllegalArgumentException(y + ": y < 0");
+		if (width < 1)
+			throw new IllegalArgumentException(width + ": width < 1");
+		if (height < 1)
+			throw new IllegalArgumentException(height + ": height < 1");
+		if (x + width > width())
+			throw new IllegalArgumentException((x + width) + ": x + width > width()");
+		if (y + height > height())
+			throw new IllegalArgumentException((y + height) + ": y + height  > height()");
+	}
+
+	protected void checkCopy(AbstractGrid other, int xOffset, int yOffset) {
+		checkCopy(width(), height(), other, xOffset, yOffset);
+	}
+
+	protected void checkCopy(int width, int height, AbstractGrid other, int xOffset, int yOffset) {
+		if (xOffset < 0)
+			throw new IllegalArgumentException("x offset < 0: " + xOffset);
+		if (yOffset < 0)
+			throw new IllegalArgumentException("y offset < 0: " + yOffset);
+		if (xOffset + width > other.width())
+			throw new IndexOutOfBoundsException("Width: " + other.width());
+		if (yOffset + height > other.height())
+			throw new IndexOutOfBoundsException("Height: " + other.height());
+	}
+
+
+	/*
+	 * Number of cells in the (clipped) 3x3 neighborhood around x, y, including
+	 * the cell itself.
+	 */
+	public int surroundingLength(int x, int y) {
+		checkRange(x, y);
+
+		int w = (x > 0 ? 2 : 1) + (x < width - 1 ? 1 : 0);
+		int h = (y > 0 ? 2 : 1) + (y < height - 1 ? 1 : 0);
+
+		return w * h;
+	}
+
+	/*
+	 * Applies op to the coordinates of every cell in the (clipped) 3x3
+	 * neighborhood around x, y, including the cell itself, in row-major order
+	 * and returns the sum of the results. The neighborhood kernels of the
+	 * concrete grids are written in terms of this.
+	 */
+	protected final int reduceSurrounding(int x, int y, IntBinaryOperator op) {
+		checkRange(x, y);
+
+		int maxX = Math.min(x + 1, width - 1);
+		int maxY = Math.min(y + 1, height - 1);
+		int sum = 0;
+
+		for (int j = Math.max(y - 1, 0); j <= maxY; j++) {
+			for (int i = Math.max(x - 1, 0); i <= maxX; i++) {
+				sum += op.applyAsInt(i, j);
+			}
+		}
+
+		return sum;
+	}
+
+	public int toX(int linear) {
+		checkRange(linear);
+		return linear % width();
+	}
+
+	public int toY(int linear) {
+		checkRange(linear);
+		return linear / width();
+	}
+
+	public int toLinear(int x, int y) {
+		checkRange(x, y);
+		return (y * width()) + x;
+	}
+}
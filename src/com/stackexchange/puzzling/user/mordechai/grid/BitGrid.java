@@ -0,0 +1,379 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/*
+ * Grid of flags packed 64 to a long. Each row starts on a fresh word, so bit
+ * (x & 63) of word (x >>> 6) in a row is cell x. Bits past the width are
+ * always kept clear, which lets the word-level operations below ignore the
+ * row ends. Unlike the other grids there are no views; a BitGrid always owns
+ * its bits.
+ */
+public class BitGrid extends AbstractGrid {
+
+	private long[] bits;
+	private int words;
+	private long lastMask;
+
+	public BitGrid(int width, int height) {
+		super(width, 0, 0, width, height);
+
+		words = (width + 63) >>> 6;
+		bits = new long[words * height];
+		lastMask = (width & 63) == 0 ? -1L : (1L << width) - 1;
+	}
+
+	public BitGrid(BitGrid other) {
+		this(other.width(), other.height());
+
+		System.arraycopy(other.bits, 0, bits, 0, bits.length);
+	}
+
+	public static <E> BitGrid of(Grid<E> grid, Predicate<? super E> predicate) {
+		BitGrid copy = new BitGrid(grid.width(), grid.height());
+
+		for (int y = 0; y < grid.height(); y++) {
+			int base = y * copy.words;
+			for (int x = 0; x < grid.width(); x++) {
+				if (predicate.test(grid.getUnchecked(x, y)))
+					copy.bits[base + (x >>> 6)] |= 1L << x;
+			}
+		}
+
+		return copy;
+	}
+
+	/*
+	 * Hands every element of grid to setter along with the flag at the same
+	 * position; grid must have the same shape.
+	 */
+	public <E> void applyTo(Grid<E> grid, BiConsumer<? super E, Boolean> setter) {
+		checkShape(grid);
+
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				setter.accept(grid.getUnchecked(x, y), getUnchecked(x, y));
+			}
+		}
+	}
+
+	public <E> Grid<E> toGrid(E clear, E set) {
+		Grid<E> grid = new Grid<>(width(), height());
+
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				grid.setUnchecked(x, y, getUnchecked(x, y) ? set : clear);
+			}
+		}
+
+		return grid;
+	}
+
+	/*
+	 * Number of words per row.
+	 */
+	public int words() {
+		return words;
+	}
+
+	public long word(int y, int word) {
+		if (y < 0 || y >= height() || word < 0 || word >= words)
+			throw new IndexOutOfBoundsException("row: " + y + ", word: " + word);
+
+		return bits[y * words + word];
+	}
+
+	public boolean get(int x, int y) {
+		checkRange(x, y);
+
+		return getUnchecked(x, y);
+	}
+
+	public boolean get(int linear) {
+		checkRange(linear);
+
+		return getUnchecked(linear % width(), linear / width());
+	}
+
+	public void set(int x, int y, boolean flag) {
+		checkRange(x, y);
+
+		int index = y * words + (x >>> 6);
+		if (flag)
+			bits[index] |= 1L << x;
+		else
+			bits[index] &= ~(1L << x);
+	}
+
+	public void set(int linear, boolean flag) {
+		checkRange(linear);
+
+		set(linear % width(), linear / width(), flag);
+	}
+
+	public void flip(int x, int y) {
+		checkRange(x, y);
+
+		bits[y * words + (x >>> 6)] ^= 1L << x;
+	}
+
+	protected boolean getUnchecked(int x, int y) {
+		return (bits[y * words + (x >>> 6)] & 1L << x) != 0;
+	}
+
+	public void fill(boolean flag) {
+		if (!flag) {
+			Arrays.fill(bits, 0L);
+			return;
+		}
+
+		Arrays.fill(bits, -1L);
+		clearPadding();
+	}
+
+	public void clear() {
+		fill(false);
+	}
+
+	public boolean isEmpty() {
+		for (long word : bits) {
+			if (word != 0)
+				return false;
+		}
+
+		return true;
+	}
+
+	/*
+	 * Word-level boolean operations, in place. The other grid must have the
+	 * same shape.
+	 */
+
+	public void and(BitGrid other) {
+		checkShape(other);
+
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] &= other.bits[i];
+		}
+	}
+
+	public void or(BitGrid other) {
+		checkShape(other);
+
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] |= other.bits[i];
+		}
+	}
+
+	public void xor(BitGrid other) {
+		checkShape(other);
+
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] ^= other.bits[i];
+		}
+	}
+
+	public void andNot(BitGrid other) {
+		checkShape(other);
+
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] &= ~other.bits[i];
+		}
+	}
+
+	public void not() {
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = ~bits[i];
+		}
+
+		clearPadding();
+	}
+
+	/*
+	 * Moves every flag by (dx, dy); flags moved off the grid are lost and the
+	 * vacated cells are cleared.
+	 */
+	public void shift(int dx, int dy) {
+		if (dx == 0 && dy == 0)
+			return;
+
+		long[] shifted = new long[bits.length];
+
+		for (int y = Math.max(0, dy); y < Math.min(height(), height() + dy); y++) {
+			shiftRow((y - dy) * words, shifted, y * words, dx);
+		}
+
+		bits = shifted;
+		clearPadding();
+	}
+
+	private void shiftRow(int from, long[] dest, int to, int dx) {
+		int wordShift = Math.abs(dx) >>> 6;
+		int bitShift = Math.abs(dx) & 63;
+
+		for (int w = 0; w < words; w++) {
+			long word;
+			if (dx >= 0) {
+				word = wordAt(from, w - wordShift) << bitShift;
+				if (bitShift != 0)
+					word |= wordAt(from, w - wordShift - 1) >>> 64 - bitShift;
+			} else {
+				word = wordAt(from, w + wordShift) >>> bitShift;
+				if (bitShift != 0)
+					word |= wordAt(from, w + wordShift + 1) << 64 - bitShift;
+			}
+
+			dest[to + w] = word;
+		}
+	}
+
+	private long wordAt(int base, int w) {
+		return w < 0 || w >= words ? 0L : bits[base + w];
+	}
+
+	public int popcount() {
+		int count = 0;
+		for (long word : bits) {
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+
+	public int popcount(int x, int y, int width, int height) {
+		checkView(x, y, width, height);
+
+		int first = x >>> 6;
+		int last = (x + width - 1) >>> 6;
+		long firstMask = -1L << x;
+		long endMask = -1L >>> 63 - (x + width - 1 & 63);
+
+		int count = 0;
+		for (int j = y; j < y + height; j++) {
+			int base = j * words;
+
+			if (first == last) {
+				count += Long.bitCount(bits[base + first] & firstMask & endMask);
+				continue;
+			}
+
+			count += Long.bitCount(bits[base + first] & firstMask);
+			for (int w = first + 1; w < last; w++) {
+				count += Long.bitCount(bits[base + w]);
+			}
+			count += Long.bitCount(bits[base + last] & endMask);
+		}
+
+		return count;
+	}
+
+	/*
+	 * Number of set flags in the 3x3 block around each cell of row y, the cell
+	 * itself included, computed 64 cells at a time. The counts come out
+	 * bit-sliced: bit i of planes[k * words() + w] is bit k of the count for
+	 * cell w * 64 + i, so planes needs room for 4 * words() longs.
+	 */
+	public void sumSurrounding(int y, long[] planes) {
+		if (y < 0 || y >= height())
+			throw new IndexOutOfBoundsException("row: " + y);
+
+		Arrays.fill(planes, 0, 4 * words, 0L);
+
+		for (int r = Math.max(0, y - 1); r <= Math.min(height() - 1, y + 1); r++) {
+			int base = r * words;
+
+			for (int w = 0; w < words; w++) {
+				long center = bits[base + w];
+				long left = center << 1 | wordAt(base, w - 1) >>> 63;
+				long right = center >>> 1 | wordAt(base, w + 1) << 63;
+
+				add(planes, w, center);
+				add(planes, w, left);
+				add(planes, w, right);
+			}
+		}
+
+		for (int k = 0; k < 4; k++) {
+			planes[k * words + words - 1] &= lastMask;
+		}
+	}
+
+	/*
+	 * Bit-sliced ripple carry; at most 9 additions, so 4 planes never overflow.
+	 */
+	private void add(long[] planes, int w, long value) {
+		for (int k = w; value != 0 && k < 4 * words; k += words) {
+			long carry = planes[k] & value;
+			planes[k] ^= value;
+			value = carry;
+		}
+	}
+
+	public ByteGrid sumSurrounding() {
+		ByteGrid sums = new ByteGrid(width(), height());
+		long[] planes = new long[4 * words];
+
+		for (int y = 0; y < height(); y++) {
+			sumSurrounding(y, planes);
+
+			for (int x = 0; x < width(); x++) {
+				int w = x >>> 6;
+				int sum = 0;
+				for (int k = 0; k < 4; k++) {
+					sum |= (int) (planes[k * words + w] >>> x & 1) << k;
+				}
+
+				sums.setUnchecked(x, y, (byte) sum);
+			}
+		}
+
+		return sums;
+	}
+
+	private void clearPadding() {
+		if (lastMask == -1L)
+			return;
+
+		for (int i = words - 1; i < bits.length; i += words) {
+			bits[i] &= lastMask;
+		}
+	}
+
+	private void checkShape(AbstractGrid other) {
+		if (other.width() != width() || other.height() != height())
+			throw new IllegalArgumentException(
+					"Shape mismatch: " + other.width() + "x" + other.height() + ", expected " + width() + "x" + height());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof BitGrid))
+			return false;
+
+		BitGrid other = (BitGrid) obj;
+		return other.width() == width() && other.height() == height() && Arrays.equals(other.bits, bits);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(bits) * 31 + width();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(length() + height());
+
+		for (int y = 0; y < height(); y++) {
+			if (y > 0)
+				builder.append('\n');
+
+			for (int x = 0; x < width(); x++) {
+				builder.append(getUnchecked(x, y) ? '1' : '0');
+			}
+		}
+
+		return builder.toString();
+	}
+}
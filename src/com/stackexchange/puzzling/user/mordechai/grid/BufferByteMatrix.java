@@ -0,0 +1,61 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/*
+ * ByteMatrix kept outside the heap, in a direct or memory mapped ByteBuffer.
+ * Only absolute accessors are used, so the buffer's position and limit are
+ * left alone.
+ */
+public class BufferByteMatrix extends ByteMatrix {
+
+	private ByteBuffer buffer;
+
+	public BufferByteMatrix(int width, int height) {
+		this(width, height, ByteBuffer.allocateDirect(Math.multiplyExact(width, height)));
+	}
+
+	/*
+	 * Wraps width * height bytes of buffer, starting at its current position.
+	 */
+	public BufferByteMatrix(int width, int height, ByteBuffer buffer) {
+		super(width, height, null);
+
+		int length = Math.multiplyExact(width, height);
+		if (buffer.remaining() < length)
+			throw new IllegalArgumentException("Buffer too small: " + buffer.remaining() + " < " + length);
+
+		this.buffer = buffer.slice(buffer.position(), length);
+	}
+
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	@Override
+	public byte get(int index) {
+		return buffer.get(index);
+	}
+
+	@Override
+	public void set(int index, byte data) {
+		buffer.put(index, data);
+	}
+
+	@Override
+	public void copyTo(int index, ByteMatrix dest, int destIndex, int length) {
+		if (dest instanceof BufferByteMatrix && dest != this) {
+			((BufferByteMatrix) dest).buffer.put(destIndex, buffer, index, length);
+			return;
+		}
+
+		super.copyTo(index, dest, destIndex, length);
+	}
+
+	@Override
+	public void flush() {
+		if (buffer instanceof MappedByteBuffer)
+			((MappedByteBuffer) buffer).force();
+	}
+}
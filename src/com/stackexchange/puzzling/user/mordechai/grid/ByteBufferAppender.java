@@ -0,0 +1,47 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.nio.ByteBuffer;
+
+/*
+ * Appendable that encodes straight into a ByteBuffer as ISO-8859-1, one byte
+ * per char; characters outside that range are written as '?'. Throws
+ * BufferOverflowException once the buffer is full.
+ */
+public class ByteBufferAppender implements Appendable {
+
+	private ByteBuffer buffer;
+
+	public ByteBufferAppender(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	@Override
+	public ByteBufferAppender append(char c) {
+		buffer.put(c > 0xFF ? (byte) '?' : (byte) c);
+		return this;
+	}
+
+	@Override
+	public ByteBufferAppender append(CharSequence csq) {
+		if (csq == null)
+			csq = "null";
+
+		return append(csq, 0, csq.length());
+	}
+
+	@Override
+	public ByteBufferAppender append(CharSequence csq, int start, int end) {
+		if (csq == null)
+			csq = "null";
+
+		for (int i = start; i < end; i++) {
+			append(csq.charAt(i));
+		}
+
+		return this;
+	}
+}
@@ -0,0 +1,6 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+public interface ByteCellFunction {
+
+	byte get(int x, int y, byte old);
+}
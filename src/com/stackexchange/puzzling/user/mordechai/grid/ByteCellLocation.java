@@ -0,0 +1,5 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+public interface ByteCellLocation {
+	void accept(byte data, int x, int y);
+}
@@ -0,0 +1,326 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/*
+ * Grid of primitive byte values, free of boxing. Mirrors the Grid<T> API where
+ * it makes sense for a value type.
+ */
+public class ByteGrid extends AbstractGrid {
+
+	private ByteMatrix matrix;
+
+	protected ByteGrid(ByteMatrix matrix, int x, int y, int width, int height) {
+		super(matrix.getWidth(), x, y, width, height);
+		this.matrix = matrix;
+	}
+
+	public ByteGrid(int width, int height) {
+		this(new ByteMatrix(width, height), 0, 0, width, height);
+	}
+
+	/*
+	 * Grid stored off-heap, so it neither counts against nor burdens the
+	 * garbage collected heap.
+	 */
+	public static ByteGrid direct(int width, int height) {
+		return new ByteGrid(new BufferByteMatrix(width, height), 0, 0, width, height);
+	}
+
+	/*
+	 * Grid backed by width * height bytes of the file, starting at offset. The
+	 * file is created or grown as needed, and changes are written back by the
+	 * operating system, or eagerly by flush().
+	 */
+	public static ByteGrid map(Path file, long offset, int width, int height) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = channel.map(MapMode.READ_WRITE, offset, Math.multiplyExact(width, height));
+
+			return new ByteGrid(new BufferByteMatrix(width, height, buffer), 0, 0, width, height);
+		}
+	}
+
+	/*
+	 * Read-only counterpart of map(), for files that only need loading. The
+	 * file must exist and hold all width * height bytes; writes to the grid
+	 * throw ReadOnlyBufferException.
+	 */
+	public static ByteGrid mapReadOnly(Path file, long offset, int width, int height) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			int length = Math.multiplyExact(width, height);
+			if (channel.size() < offset + length)
+				throw new EOFException("Truncated grid: " + file);
+
+			ByteBuffer buffer = channel.map(MapMode.READ_ONLY, offset, length);
+
+			return new ByteGrid(new BufferByteMatrix(width, height, buffer), 0, 0, width, height);
+		}
+	}
+
+	public ByteGrid(ByteGrid other) {
+		this(other.width(), other.height());
+
+		other.copyTo(this);
+	}
+
+	public static <E> ByteGrid of(Grid<E> grid, ToIntFunction<? super E> mapper) {
+		ByteGrid copy = new ByteGrid(grid.width(), grid.height());
+
+		for (int y = 0; y < grid.height(); y++) {
+			for (int x = 0; x < grid.width(); x++) {
+				copy.setUnchecked(x, y, (byte) mapper.applyAsInt(grid.getUnchecked(x, y)));
+			}
+		}
+
+		return copy;
+	}
+
+	protected ByteMatrix getMatrix() {
+		return matrix;
+	}
+
+	public byte get(int x, int y) {
+		checkRange(x, y);
+
+		return getUnchecked(x, y);
+	}
+
+	public byte get(int linear) {
+		checkRange(linear);
+
+		return getUnchecked(linear);
+	}
+
+	public void set(int x, int y, byte data) {
+		checkRange(x, y);
+
+		setUnchecked(x, y, data);
+	}
+
+	public void set(int linear, byte data) {
+		checkRange(linear);
+
+		setUnchecked(linear, data);
+	}
+
+	protected byte getUnchecked(int x, int y) {
+		return matrix.get(matrixIndex(x, y));
+	}
+
+	protected void setUnchecked(int x, int y, byte data) {
+		matrix.set(matrixIndex(x, y), data);
+	}
+
+	protected byte getUnchecked(int linear) {
+		return matrix.get(matrixIndex(linear));
+	}
+
+	protected void setUnchecked(int linear, byte data) {
+		matrix.set(matrixIndex(linear), data);
+	}
+
+	public int indexOf(byte data) {
+		for (int i = 0; i < length(); i++) {
+			if (getUnchecked(i) == data)
+				return i;
+		}
+
+		return -1;
+	}
+
+	public void fill(byte data) {
+		fillRows(0, 0, width(), height(), data);
+	}
+
+	public void fill(ByteCellFunction filler) {
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				setUnchecked(x, y, filler.get(x, y, getUnchecked(x, y)));
+			}
+		}
+	}
+
+	public int count(byte data) {
+		int count = 0;
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				if (getUnchecked(x, y) == data)
+					count++;
+			}
+		}
+
+		return count;
+	}
+
+	public int count(BytePredicate predicate) {
+		int count = 0;
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				if (predicate.test(getUnchecked(x, y)))
+					count++;
+			}
+		}
+
+		return count;
+	}
+
+	public void forEach(ByteCellLocation cell) {
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				cell.accept(getUnchecked(x, y), x, y);
+			}
+		}
+	}
+
+	/*
+	 * Neighborhood kernels, see Grid.
+	 */
+
+	public void forEachSurrounding(int x, int y, ByteCellLocation cell) {
+		reduceSurrounding(x, y, (i, j) -> {
+			cell.accept(getUnchecked(i, j), i, j);
+			return 0;
+		});
+	}
+
+	public int countSurrounding(int x, int y, BytePredicate predicate) {
+		return reduceSurrounding(x, y, (i, j) -> predicate.test(getUnchecked(i, j)) ? 1 : 0);
+	}
+
+	public int countSurrounding(int x, int y, byte data) {
+		return reduceSurrounding(x, y, (i, j) -> getUnchecked(i, j) == data ? 1 : 0);
+	}
+
+	/*
+	 * Single pass histogram of the surrounding values, each of which must be a
+	 * valid index into counts. Returns the number of cells visited.
+	 */
+	public int countSurrounding(int x, int y, int[] counts) {
+		Arrays.fill(counts, 0);
+
+		return reduceSurrounding(x, y, (i, j) -> {
+			counts[getUnchecked(i, j)]++;
+			return 1;
+		});
+	}
+
+	public int sumSurrounding(int x, int y) {
+		return reduceSurrounding(x, y, (i, j) -> getUnchecked(i, j));
+	}
+
+	public void flush() {
+		matrix.flush();
+	}
+
+	public ByteGrid view(int x, int y, int width, int height) {
+		checkView(x, y, width, height);
+
+		return new ByteGrid(getMatrix(), x + getX(), y + getY(), width, height);
+	}
+
+	public ByteGrid branch() {
+		return new ByteGrid(this);
+	}
+
+	public <E> Grid<E> toGrid(IntFunction<? extends E> mapper) {
+		Grid<E> grid = new Grid<>(width(), height());
+
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				grid.setUnchecked(x, y, mapper.apply(getUnchecked(x, y)));
+			}
+		}
+
+		return grid;
+	}
+
+	public void copyTo(ByteGrid other, int xOffset, int yOffset) {
+		checkCopy(other, xOffset, yOffset);
+
+		copyRows(0, 0, width(), height(), other, xOffset, yOffset);
+	}
+
+	public void copyTo(ByteGrid other) {
+		copyTo(other, 0, 0);
+	}
+
+	/*
+	 * Bulk operations; these work on whole rows of the backing store rather
+	 * than cell by cell. Copies are safe when source and target overlap, e.g.
+	 * two views of the same grid.
+	 */
+
+	public void fill(int x, int y, int width, int height, byte data) {
+		checkView(x, y, width, height);
+
+		fillRows(x, y, width, height, data);
+	}
+
+	private void fillRows(int x, int y, int width, int height, byte data) {
+		if (isContiguous() && width == width()) {
+			int from = matrixIndex(x, y);
+			matrix.fill(from, from + width * height, data);
+			return;
+		}
+
+		for (int j = 0; j < height; j++) {
+			int from = matrixIndex(x, y + j);
+			matrix.fill(from, from + width, data);
+		}
+	}
+
+	public void copyTo(int x, int y, int width, int height, ByteGrid other, int xOffset, int yOffset) {
+		checkView(x, y, width, height);
+		checkCopy(width, height, other, xOffset, yOffset);
+
+		copyRows(x, y, width, height, other, xOffset, yOffset);
+	}
+
+	private void copyRows(int x, int y, int width, int height, ByteGrid other, int xOffset, int yOffset) {
+		ByteMatrix dest = other.getMatrix();
+
+		if (isContiguous() && other.isContiguous() && width == width() && width == other.width()) {
+			matrix.copyTo(matrixIndex(x, y), dest, other.matrixIndex(xOffset, yOffset), width * height);
+			return;
+		}
+
+		if (dest == matrix && other.matrixIndex(xOffset, yOffset) > matrixIndex(x, y)) {
+			for (int j = height - 1; j >= 0; j--) {
+				matrix.copyTo(matrixIndex(x, y + j), dest, other.matrixIndex(xOffset, yOffset + j), width);
+			}
+		} else {
+			for (int j = 0; j < height; j++) {
+				matrix.copyTo(matrixIndex(x, y + j), dest, other.matrixIndex(xOffset, yOffset + j), width);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(length() * 3);
+
+		for (int y = 0; y < height(); y++) {
+			if (y > 0)
+				builder.append('\n');
+
+			for (int x = 0; x < width(); x++) {
+				if (x > 0)
+					builder.append(',');
+
+				builder.append(getUnchecked(x, y));
+			}
+		}
+
+		return builder.toString();
+	}
+}
@@ -0,0 +1,84 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Arrays;
+
+/*
+ * Primitive counterpart of Matrix, laid out as data[y * width + x].
+ */
+public class ByteMatrix {
+
+	private int width;
+	private int height;
+
+	private byte[] data;
+
+	public ByteMatrix(int width, int height) {
+		this(width, height, new byte[width * height]);
+	}
+
+	/*
+	 * For subclasses that provide their own storage by overriding the index
+	 * based accessors; data may then be null.
+	 */
+	protected ByteMatrix(int width, int height, byte[] data) {
+		this.width = width;
+		this.height = height;
+		this.data = data;
+	}
+
+	public int indexOf(int x, int y) {
+		return y * width + x;
+	}
+
+	public byte get(int index) {
+		return data[index];
+	}
+
+	public void set(int index, byte data) {
+		this.data[index] = data;
+	}
+
+	public void fill(int from, int to, byte data) {
+		if (this.data != null) {
+			Arrays.fill(this.data, from, to, data);
+			return;
+		}
+
+		for (int i = from; i < to; i++) {
+			set(i, data);
+		}
+	}
+
+	public void copyTo(int index, ByteMatrix dest, int destIndex, int length) {
+		if (data != null && dest.data != null) {
+			System.arraycopy(data, index, dest.data, destIndex, length);
+			return;
+		}
+
+		if (dest == this && destIndex > index) {
+			for (int i = length - 1; i >= 0; i--) {
+				dest.set(destIndex + i, get(index + i));
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				dest.set(destIndex + i, get(index + i));
+			}
+		}
+	}
+
+	/*
+	 * Writes pending changes through to the underlying storage, if it is
+	 * anything but the heap.
+	 */
+	public void flush() {
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+}
@@ -0,0 +1,6 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+public interface BytePredicate {
+
+	boolean test(byte value);
+}
@@ -1,21 +1,26 @@
 package com.stackexchange.puzzling.user.mordechai.grid;
 
+/*
+ * Lightweight handle to a single position of a Matrix. Cells are created on
+ * demand and read/write through to the backing store.
+ */
 public class Cell<T> {
 
-	private T data;
+	private Matrix<T> matrix;
 	private int x, y;
 
-	public Cell(int x, int y) {
+	public Cell(Matrix<T> matrix, int x, int y) {
+		this.matrix = matrix;
 		this.x = x;
 		this.y = y;
 	}
 
 	public T getData() {
-		return data;
+		return matrix.get(x, y);
 	}
 
 	public void setData(T data) {
-		this.data = data;
+		matrix.set(x, y, data);
 	}
 
 	public int getX() {
@@ -26,4 +31,22 @@ public class Cell<T> {
 		return y;
 	}
 
+	Matrix<T> getMatrix() {
+		return matrix;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Cell))
+			return false;
+
+		Cell<?> other = (Cell<?>) obj;
+		return other.matrix == matrix && other.x == x && other.y == y;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(matrix) * 31 + matrix.indexOf(x, y);
+	}
+
 }
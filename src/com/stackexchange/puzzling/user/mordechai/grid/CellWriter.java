@@ -0,0 +1,8 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.io.IOException;
+
+public interface CellWriter<T> {
+
+	void write(T data, Appendable out) throws IOException;
+}
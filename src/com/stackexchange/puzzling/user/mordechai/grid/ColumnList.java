@@ -32,14 +32,14 @@ public class ColumnList<T> extends AbstractList<T> {
 
 	@Override
 	public void clear() {
-		for (int i = 0; i < grid.width(); i++) {
+		for (int i = 0; i < grid.height(); i++) {
 			set(i, null);
 		}
 	}
 
 	@Override
 	public boolean isEmpty() {
-		for (int i = 0; i < grid.width(); i++) {
+		for (int i = 0; i < grid.height(); i++) {
 			if(get(i) != null)
 				return false;
 		}
@@ -1,35 +1,35 @@
 package com.stackexchange.puzzling.user.mordechai.grid;
 
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Grid<T> implements Iterable<T> {
-
-	private int x;
-	private int y;
-	private int width;
-	private int height;
+public class Grid<T> extends AbstractGrid implements Iterable<T> {
 
 	private Matrix<T> matrix;
 
+	private GridJournal journal;
+
 	private GridList<T> list;
 	private RowList<T>[] rowLists;
 	private ColumnList<T>[] columnLists;
 
 	@SuppressWarnings("unchecked")
 	protected Grid(Matrix<T> matrix, int x, int y, int width, int height) {
+		super(matrix.getWidth(), x, y, width, height);
 		this.matrix = matrix;
-		this.x = x;
-		this.y = y;
-		this.width = width;
-		this.height = height;
 
 		rowLists = new RowList[height];
 		columnLists = new ColumnList[width];
@@ -39,66 +39,82 @@ public class Grid<T> implements Iterable<T> {
 		this(new Matrix<T>(width, height), 0, 0, width, height);
 	}
 
+	/*
+	 * Grid backed by copy-on-write pages, where branch() shares all storage
+	 * with the original and only pages written to afterwards are duplicated.
+	 * Meant for immutable values, as the elements themselves are shared.
+	 */
+	public static <E> Grid<E> persistent(int width, int height) {
+		return new Grid<>(new PagedMatrix<E>(width, height), 0, 0, width, height);
+	}
+
 	public Grid(Grid<? extends T> other) {
-		this(other.width, other.height);
+		this(other.width(), other.height());
 
-		fill((x, y, old) -> other.get(x, y));
+		other.copyTo(this);
 	}
 
 	protected Matrix<T> getMatrix() {
 		return matrix;
 	}
 
-	protected int getX() {
-		return x;
-	}
+	public T get(int x, int y) {
+		checkRange(x, y);
 
-	protected int getY() {
-		return y;
+		return getUnchecked(x, y);
 	}
 
-	public int width() {
-		return width;
-	}
+	public T get(int linear) {
+		checkRange(linear);
 
-	public int height() {
-		return height;
+		return getUnchecked(linear);
 	}
 
-	public int length() {
-		return width() * height();
+	public void set(int linear, T data) {
+		checkRange(linear);
+
+		setUnchecked(linear, data);
 	}
 
-	public T get(int x, int y) {
+	public void set(int x, int y, T data) {
 		checkRange(x, y);
 
-		return cellAt(x, y).getData();
+		setUnchecked(x, y, data);
 	}
 
-	public T get(int linear) {
-		checkRange(linear);
+	/*
+	 * Unchecked accessors for hot loops; the caller is responsible for the
+	 * coordinates being in range of this grid.
+	 */
 
-		return get(toX(linear), toY(linear));
+	protected T getUnchecked(int x, int y) {
+		return matrix.get(matrixIndex(x, y));
 	}
 
-	public void set(int linear, T data) {
-		checkRange(linear);
+	protected void setUnchecked(int x, int y, T data) {
+		matrix.set(matrixIndex(x, y), data);
 
-		set(toX(linear), toY(linear), data);
+		if (journal != null)
+			journal.markBacking(getX() + x, getY() + y);
 	}
 
-	public void set(int x, int y, T data) {
-		checkRange(x, y);
+	protected T getUnchecked(int linear) {
+		return matrix.get(matrixIndex(linear));
+	}
 
-		cellAt(x, y).setData(data);
+	protected void setUnchecked(int linear, T data) {
+		matrix.set(matrixIndex(linear), data);
+
+		if (journal != null)
+			journal.markBacking(getX() + linear % width(), getY() + linear / width());
 	}
 
 	protected Cell<T> cellAt(int x, int y) {
-		if (x < 0 || x >= width || y < 0 || y >= height)
+		if (x < 0 || x >= width() || y < 0 || y >= height())
 			return null;
 
-		x += this.x;
-		y += this.y;
+		x += getX();
+		y += getY();
 
 		return matrix.cellAt(x, y);
 	}
@@ -111,17 +127,19 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	public int indexOf(T data) {
+		int length = length();
+
 		if (data == null) {
-			for (int i = 0; i < length(); i++) {
-				if (get(i) == null)
+			for (int i = 0; i < length; i++) {
+				if (getUnchecked(i) == null)
 					return i;
 			}
 
 			return -1;
 		}
 
-		for (int i = 0; i < length(); i++) {
-			if (data.equals(get(i)))
+		for (int i = 0; i < length; i++) {
+			if (data.equals(getUnchecked(i)))
 				return i;
 		}
 
@@ -129,49 +147,16 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	protected int indexOfCell(Cell<T> cell) {
-		if (cell == null)
+		if (cell == null || cell.getMatrix() != matrix)
 			return -1;
 
-		for (int i = 0; i < length(); i++) {
-			Cell<T> c = cellAt(i);
-			if (c.equals(cell))
-				return i;
-		}
-
-		return -1;
-	}
-
-	protected void checkRange(int x, int y) {
-		if (x < 0)
-			throw new IndexOutOfBoundsException("x < 0: " + x);
-		if (x >= width)
-			throw new IndexOutOfBoundsException("x >= width: " + x);
-		if (y < 0)
-			throw new IndexOutOfBoundsException("y < 0: " + y);
-		if (y >= height)
-			throw new IndexOutOfBoundsException("y >= height: " + y);
-	}
-
-	protected void checkRange(int linear) {
-		if (linear < 0)
-			throw new IndexOutOfBoundsException("index < 0: " + linear);
-		if (linear >= length())
-			throw new IndexOutOfBoundsException("index >= length: " + linear);
-	}
-
-	public int toX(int linear) {
-		checkRange(linear);
-		return linear % width();
-	}
+		int x = cell.getX() - getX();
+		int y = cell.getY() - getY();
 
-	public int toY(int linear) {
-		checkRange(linear);
-		return linear / width();
-	}
+		if (x < 0 || x >= width() || y < 0 || y >= height())
+			return -1;
 
-	public int toLinear(int x, int y) {
-		checkRange(x, y);
-		return (y * width()) + x;
+		return y * width() + x;
 	}
 
 	public void fill(Supplier<T> supplier) {
@@ -179,7 +164,7 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	public void fill(T data) {
-		fill((x, y, old) -> data);
+		fillRows(0, 0, width(), height(), data);
 	}
 
 	public void replaceAll(Function<T, T> filler) {
@@ -187,26 +172,32 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	public void fill(CellFunction<T> filler) {
-		GridIterator<T> iterator = iterator();
-		while (iterator.hasNext()) {
-			T old = iterator.next();
-			iterator.set(filler.get(iterator.x(), iterator.y(), old));
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				setUnchecked(x, y, filler.get(x, y, getUnchecked(x, y)));
+			}
 		}
 	}
 
 	public int count(Predicate<T> predicate) {
 		int count = 0;
-		for (T data : this)
-			if (predicate.test(data))
-				count++;
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				if (predicate.test(getUnchecked(x, y)))
+					count++;
+			}
+		}
 
 		return count;
 	}
 
 	public boolean isEmpty() {
-		for (T data : this)
-			if (data != null)
-				return false;
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				if (getUnchecked(x, y) != null)
+					return false;
+			}
+		}
 
 		return true;
 	}
@@ -216,51 +207,167 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	public Grid<T> view(int x, int y, int width, int height) {
-		if (x < 0)
-			throw new IllegalArgumentException(x + ": x < 0");
-		if (y < 0)
-			throw new IllegalArgumentException(y + ": y < 0");
-		if (width < 1)
-			throw new IllegalArgumentException(width + ": width < 1");
-		if (height < 1)
-			throw new IllegalArgumentException(height + ": height < 1");
-		if (x + width > width())
-			throw new IllegalArgumentException((x + width) + ": x + width > width()");
-		if (y + height > height())
-			throw new IllegalArgumentException((y + height) + ": y + height  > height()");
-
-		return new Grid<T>(getMatrix(), x + getX(), y + getY(), width, height);
+		checkView(x, y, width, height);
+
+		return share(new Grid<T>(getMatrix(), x + getX(), y + getY(), width, height));
+	}
+
+	/*
+	 * Starts logging the cells written to through this grid and any view
+	 * created from it afterwards. Replaces a journal already running.
+	 */
+	public GridJournal startJournal() {
+		journal = new GridJournal(getX(), getY(), width(), height());
+
+		return journal;
+	}
+
+	public GridJournal getJournal() {
+		return journal;
+	}
+
+	/*
+	 * True if writes through this grid reach any journal.
+	 */
+	protected boolean isJournaled() {
+		return journal != null;
+	}
+
+	public void stopJournal() {
+		journal = null;
+	}
+
+	/*
+	 * Writes so far to the backing store, which views share; it moves on
+	 * whenever a cell may have been replaced, but doesn't see changes inside
+	 * the elements.
+	 */
+	public long modifications() {
+		return matrix.modifications();
+	}
+
+	/*
+	 * Geometric views; these share storage with this grid and remap
+	 * coordinates rather than copying. Rotations are clockwise.
+	 */
+
+	public Grid<T> transpose() {
+		return TransformedGrid.transform(this, height(), width(), 0, 0, 0, 1, 1, 0);
+	}
+
+	public Grid<T> rotate(int quarterTurns) {
+		switch (Math.floorMod(quarterTurns, 4)) {
+		case 1:
+			return TransformedGrid.transform(this, height(), width(), 0, height() - 1, 0, -1, 1, 0);
+		case 2:
+			return TransformedGrid.transform(this, width(), height(), width() - 1, height() - 1, -1, 0, 0, -1);
+		case 3:
+			return TransformedGrid.transform(this, height(), width(), width() - 1, 0, 0, 1, -1, 0);
+		default:
+			return this;
+		}
+	}
+
+	/*
+	 * Left to right.
+	 */
+	public Grid<T> mirror() {
+		return TransformedGrid.transform(this, width(), height(), width() - 1, 0, -1, 0, 0, 1);
+	}
+
+	/*
+	 * Upside down.
+	 */
+	public Grid<T> flip() {
+		return TransformedGrid.transform(this, width(), height(), 0, height() - 1, 1, 0, 0, -1);
+	}
+
+	/*
+	 * All 8 images under rotation and mirroring, this grid first.
+	 */
+	public List<Grid<T>> symmetries() {
+		List<Grid<T>> symmetries = new ArrayList<>(8);
+		for (int i = 0; i < 4; i++) {
+			symmetries.add(rotate(i));
+		}
+		for (int i = 0; i < 4; i++) {
+			symmetries.add(mirror().rotate(i));
+		}
+
+		return symmetries;
+	}
+
+	/*
+	 * False for grids whose cells don't map linearly onto the backing store;
+	 * bulk operations then go cell by cell.
+	 */
+	protected boolean isDirect() {
+		return true;
+	}
+
+	/*
+	 * Lets views created by subclasses report to the same journal.
+	 */
+	protected <V extends Grid<T>> V share(V view) {
+		((Grid<T>) view).journal = journal;
+
+		return view;
 	}
 
 	public Grid<T> getSurroundingCells(int x, int y) {
-		int width = 3;
-		int height = 3;
+		int minX = Math.max(x - 1, 0);
+		int minY = Math.max(y - 1, 0);
+		int maxX = Math.min(x + 1, width() - 1);
+		int maxY = Math.min(y + 1, height() - 1);
 
-		if (x > 0)
-			x--;
-		else
-			width--;
+		return view(minX, minY, maxX - minX + 1, maxY - minY + 1);
+	}
 
-		if (y > 0)
-			y--;
-		else
-			height--;
+	/*
+	 * Neighborhood kernels; these visit the (clipped) 3x3 neighborhood around
+	 * x, y, including the cell itself, in place without creating a view.
+	 */
 
-		while (x + width > width())
-			width--;
-		while (y + height > height())
-			height--; // FIXME
+	public void forEachSurrounding(int x, int y, CellLocation<T> cell) {
+		reduceSurrounding(x, y, (i, j) -> {
+			cell.accept(getUnchecked(i, j), i, j);
+			return 0;
+		});
+	}
 
-		return view(x, y, width, height);
+	public int countSurrounding(int x, int y, Predicate<? super T> predicate) {
+		return reduceSurrounding(x, y, (i, j) -> predicate.test(getUnchecked(i, j)) ? 1 : 0);
+	}
+
+	/*
+	 * Counts several categories in a single pass: counts is cleared, then
+	 * counts[classifier(data)] is incremented for every surrounding cell.
+	 * Returns the number of cells visited.
+	 */
+	public int countSurrounding(int x, int y, ToIntFunction<? super T> classifier, int[] counts) {
+		Arrays.fill(counts, 0);
+
+		return reduceSurrounding(x, y, (i, j) -> {
+			counts[classifier.applyAsInt(getUnchecked(i, j))]++;
+			return 1;
+		});
+	}
+
+	/*
+	 * Shallow copy; elements are shared, not copied. Constant time on a
+	 * persistent grid.
+	 */
+	public Grid<T> branch() {
+		return new Grid<>(getMatrix().copy(getX(), getY(), width(), height()), 0, 0, width(), height());
 	}
 
 	public Grid<T> branch(Function<T, T> copier) {
 		Grid<T> copy = new Grid<>(width(), height());
 
-		GridIterator<T> iterator = iterator();
-		while (iterator.hasNext()) {
-			T old = iterator.next();
-			copy.set(iterator.x(), iterator.y(), copier.apply(old));
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				copy.setUnchecked(x, y, copier.apply(getUnchecked(x, y)));
+			}
 		}
 
 		return copy;
@@ -279,7 +386,7 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	public List<T> row(int row) {
-		if (row < 0 || row >= height)
+		if (row < 0 || row >= height())
 			throw new IndexOutOfBoundsException("row: " + row);
 
 		RowList<T> list = rowLists[row];
@@ -293,7 +400,7 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	public List<T> column(int column) {
-		if (column < 0 || column >= width)
+		if (column < 0 || column >= width())
 			throw new IndexOutOfBoundsException("column: " + column);
 
 		ColumnList<T> list = columnLists[column];
@@ -308,11 +415,87 @@ public class Grid<T> implements Iterable<T> {
 	public void forEach(CellLocation<T> cell) {
 		for (int y = 0; y < height(); y++) {
 			for (int x = 0; x < width(); x++) {
-				cell.accept(get(x, y), x, y);
+				cell.accept(getUnchecked(x, y), x, y);
 			}
 		}
 	}
 
+	/*
+	 * Parallel variants of the whole-grid operations. Work is split into row
+	 * bands on the common fork-join pool; small grids run sequentially. The
+	 * callbacks must be safe to call concurrently. Journals are not, so a grid
+	 * whose writes are journaled fills sequentially.
+	 */
+
+	public void parallelForEach(CellLocation<T> cell) {
+		if (length() <= GridSpliterator.SPLIT_THRESHOLD) {
+			forEach(cell);
+			return;
+		}
+
+		ForkJoinPool.commonPool().invoke(new GridSpliterator.ForEachTask<>(spliterator(), cell));
+	}
+
+	public void parallelFill(CellFunction<T> filler) {
+		if (!getMatrix().isConcurrentWritable() || isJournaled()) {
+			fill(filler);
+			return;
+		}
+
+		parallelForEach((data, x, y) -> setUnchecked(x, y, filler.get(x, y, data)));
+	}
+
+	public int parallelCount(Predicate<T> predicate) {
+		if (length() <= GridSpliterator.SPLIT_THRESHOLD)
+			return count(predicate);
+
+		return (int) parallelStream().filter(predicate).count();
+	}
+
+	/*
+	 * Row multiple, counted from the top of the backing store, that parallel
+	 * splits should fall on.
+	 */
+	protected int splitAlignment() {
+		return 1;
+	}
+
+	@Override
+	public GridSpliterator<T> spliterator() {
+		return new GridSpliterator<>(this);
+	}
+
+	public Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	public Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	public Stream<List<T>> rows() {
+		return IntStream.range(0, height()).mapToObj(this::row);
+	}
+
+	/*
+	 * Views of tileWidth x tileHeight, row by row; tiles on the right and
+	 * bottom edges are clipped to the grid.
+	 */
+	public Stream<Grid<T>> tiles(int tileWidth, int tileHeight) {
+		if (tileWidth <= 0 || tileHeight <= 0)
+			throw new IllegalArgumentException("tile: " + tileWidth + "x" + tileHeight);
+
+		int across = (width() + tileWidth - 1) / tileWidth;
+		int down = (height() + tileHeight - 1) / tileHeight;
+
+		return IntStream.range(0, across * down).mapToObj(i -> {
+			int x = i % across * tileWidth;
+			int y = i / across * tileHeight;
+
+			return view(x, y, Math.min(tileWidth, width() - x), Math.min(tileHeight, height() - y));
+		});
+	}
+
 	public String toGridString(Function<T, String> generator, boolean gridLines) {
 		String line = null;
 
@@ -368,6 +551,24 @@ public class Grid<T> implements Iterable<T> {
 		return builder.toString();
 	}
 
+	/*
+	 * Streams the grid into out, cells separated by delimiter and rows by a
+	 * line feed, without building intermediate strings.
+	 */
+	public void writeTo(Appendable out, CellWriter<? super T> writer, String delimiter) throws IOException {
+		for (int y = 0; y < height(); y++) {
+			if (y > 0)
+				out.append('\n');
+
+			for (int x = 0; x < width(); x++) {
+				if (x > 0)
+					out.append(delimiter);
+
+				writer.write(getUnchecked(x, y), out);
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		return toGridString(t -> {
@@ -389,21 +590,20 @@ public class Grid<T> implements Iterable<T> {
 		if (lines.length == 0)
 			return null;
 
-		Grid<E> grid = null;
+		String[][] tokens = new String[lines.length][];
+		int width = 0;
+		for (int y = 0; y < lines.length; y++) {
+			tokens[y] = lines[y].split(delimiter);
+			width = Math.max(width, tokens[y].length);
+		}
+
+		if (width == 0)
+			return null;
 
-		String[] tokens;
+		Grid<E> grid = new Grid<>(width, lines.length);
 		for (int y = 0; y < lines.length; y++) {
-			tokens = lines[y].split(delimiter);
-			for (int x = 0; x < tokens.length; x++) {
-				if (grid == null) {
-					grid = new Grid<>(tokens.length, lines.length);
-				} else if (tokens.length > grid.width()) {
-					Grid<E> newGrid = new Grid<>(tokens.length, lines.length);
-					grid.copyTo(newGrid);
-
-					grid = newGrid;
-				}
-				grid.set(x, y, mapper.map(x, y, tokens[x]));
+			for (int x = 0; x < tokens[y].length; x++) {
+				grid.setUnchecked(x, y, mapper.map(x, y, tokens[y][x]));
 			}
 		}
 
@@ -416,21 +616,21 @@ public class Grid<T> implements Iterable<T> {
 		if (lines.length == 0)
 			return null;
 
-		Grid<E> grid = null;
+		List<List<String>> tokens = new ArrayList<>(lines.length);
+		int width = 0;
+		for (int y = 0; y < lines.length; y++) {
+			tokens.add(tokenizer.tokenize(lines[y]));
+			width = Math.max(width, tokens.get(y).size());
+		}
+
+		if (width == 0)
+			return null;
 
-		List<String> tokens;
+		Grid<E> grid = new Grid<>(width, lines.length);
 		for (int y = 0; y < lines.length; y++) {
-			tokens = tokenizer.tokenize(lines[y]);
-			for (int x = 0; x < tokens.size(); x++) {
-				if (grid == null) {
-					grid = new Grid<>(tokens.size(), lines.length);
-				} else if (tokens.size() > grid.width()) {
-					Grid<E> newGrid = new Grid<>(tokens.size(), lines.length);
-					grid.copyTo(newGrid);
-
-					grid = newGrid;
-				}
-				grid.set(x, y, mapper.map(x, y, tokens.get(x)));
+			List<String> line = tokens.get(y);
+			for (int x = 0; x < line.size(); x++) {
+				grid.setUnchecked(x, y, mapper.map(x, y, line.get(x)));
 			}
 		}
 
@@ -438,85 +638,115 @@ public class Grid<T> implements Iterable<T> {
 	}
 
 	/*
-	 * https://stackoverflow.com/a/13655640/1751640
+	 * Parses CSV, see GridParser.
 	 */
-	private static List<String> parseLineAsCSV(String str) {
-		
-		try (Reader r = new StringReader(str)) {
-
-			int ch = r.read();
-			while (ch == '\r') {
-				// ignore linefeed chars wherever, particularly just before end of file
-				ch = r.read();
-			}
-			if (ch < 0) {
-				return null;
-			}
-			List<String> store = new ArrayList<String>();
-			StringBuilder curVal = new StringBuilder();
-			boolean inquotes = false;
-			boolean started = false;
-			while (ch >= 0) {
-				if (inquotes) {
-					started = true;
-					if (ch == '\"') {
-						inquotes = false;
-					} else {
-						curVal.append((char) ch);
-					}
-				} else {
-					if (ch == '\"') {
-						inquotes = true;
-						if (started) {
-							// if this is the second quote in a value, add a quote
-							// this is for the double quote in the middle of a value
-							curVal.append('\"');
-						}
-					} else if (ch == ',') {
-						store.add(curVal.toString());
-						curVal.setLength(0);
-						started = false;
-					} else if (ch == '\r') {
-						// ignore LF characters
-					} else if (ch == '\n') {
-						// end of a line, break out
-						break;
-					} else {
-						curVal.append((char) ch);
-					}
+	public static <E> Grid<E> fromString(String str, CellMapper<E> mapper) {
+		try {
+			return GridParser.parseCSV(CharBuffer.wrap(str), (x, y, token) -> mapper.map(x, y, token.toString()));
+		} catch (IOException e) { // not thrown by a CharBuffer
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void copyTo(Grid<? super T> other, int xOffset, int yOffset) {
+		checkCopy(other, xOffset, yOffset);
+
+		copyRows(0, 0, width(), height(), other, xOffset, yOffset);
+	}
+
+	public void copyTo(Grid<? super T> other) {
+		copyTo(other, 0, 0);
+	}
+
+	/*
+	 * Bulk operations; these work on whole rows of the backing store rather
+	 * than cell by cell. Copies are safe when source and target overlap, e.g.
+	 * two views of the same grid.
+	 */
+
+	public void fill(int x, int y, int width, int height, T data) {
+		checkView(x, y, width, height);
+
+		fillRows(x, y, width, height, data);
+	}
+
+	private void fillRows(int x, int y, int width, int height, T data) {
+		if (!isDirect()) {
+			for (int j = y; j < y + height; j++) {
+				for (int i = x; i < x + width; i++) {
+					setUnchecked(i, j, data);
 				}
-				ch = r.read();
 			}
-			store.add(curVal.toString());
-			return store;
-			
-		} catch (IOException e) {
-			return Collections.emptyList();
+			return;
+		}
+
+		if (journal != null)
+			journal.markBacking(getX() + x, getY() + y, width, height);
+
+		if (isContiguous() && width == width()) {
+			int from = matrixIndex(x, y);
+			matrix.fill(from, from + width * height, data);
+			return;
+		}
+
+		for (int j = 0; j < height; j++) {
+			int from = matrixIndex(x, y + j);
+			matrix.fill(from, from + width, data);
 		}
 	}
 
-	public static <E> Grid<E> fromString(String str, CellMapper<E> mapper) {
-		return fromString(str, Grid::parseLineAsCSV, mapper);
+	public void copyTo(int x, int y, int width, int height, Grid<? super T> other, int xOffset, int yOffset) {
+		checkView(x, y, width, height);
+		checkCopy(width, height, other, xOffset, yOffset);
+
+		copyRows(x, y, width, height, other, xOffset, yOffset);
 	}
 
-	public void copyTo(Grid<? super T> other, int xOffset, int yOffset) {
-		if (xOffset < 0)
-			throw new IllegalArgumentException("x offset < 0: " + xOffset);
-		if (yOffset < 0)
-			throw new IllegalArgumentException("y offset < 0: " + yOffset);
-		if (other.width() + xOffset < width())
-			throw new IndexOutOfBoundsException("Width: " + other.width());
-		if (other.height() + yOffset < height())
-			throw new IndexOutOfBoundsException("Height: " + other.height());
+	private void copyRows(int x, int y, int width, int height, Grid<? super T> other, int xOffset, int yOffset) {
+		if (!isDirect() || !other.isDirect()) {
+			copyCells(x, y, width, height, other, xOffset, yOffset);
+			return;
+		}
 
-		GridIterator<T> iterator = iterator();
-		while (iterator.hasNext()) {
-			T item = iterator.next();
-			other.set(iterator.x() + xOffset, iterator.y() + yOffset, item);
+		Matrix<? super T> dest = other.getMatrix();
+
+		if (other.journal != null)
+			other.journal.markBacking(other.getX() + xOffset, other.getY() + yOffset, width, height);
+
+		if (isContiguous() && other.isContiguous() && width == width() && width == other.width()) {
+			matrix.copyTo(matrixIndex(x, y), dest, other.matrixIndex(xOffset, yOffset), width * height);
+			return;
+		}
+
+		if (dest == matrix && other.matrixIndex(xOffset, yOffset) > matrixIndex(x, y)) {
+			for (int j = height - 1; j >= 0; j--) {
+				matrix.copyTo(matrixIndex(x, y + j), dest, other.matrixIndex(xOffset, yOffset + j), width);
+			}
+		} else {
+			for (int j = 0; j < height; j++) {
+				matrix.copyTo(matrixIndex(x, y + j), dest, other.matrixIndex(xOffset, yOffset + j), width);
+			}
 		}
 	}
 
-	public void copyTo(Grid<? super T> other) {
-		copyTo(other, 0, 0);
+	/*
+	 * Cell by cell copy for remapped grids, buffered since a transformed view
+	 * may overlap its source in any direction.
+	 */
+	@SuppressWarnings("unchecked")
+	private void copyCells(int x, int y, int width, int height, Grid<? super T> other, int xOffset, int yOffset) {
+		Object[] buffer = new Object[width * height];
+		for (int j = 0; j < height; j++) {
+			for (int i = 0; i < width; i++) {
+				buffer[j * width + i] = getUnchecked(x + i, y + j);
+			}
+		}
+
+		Grid<T> dest = (Grid<T>) other;
+		for (int j = 0; j < height; j++) {
+			for (int i = 0; i < width; i++) {
+				dest.setUnchecked(xOffset + i, yOffset + j, (T) buffer[j * width + i]);
+			}
+		}
 	}
 }
@@ -81,20 +81,28 @@ public class GridIterator<T> implements Iterator<T> {
 	}
 
 	public T get() {
-		return getCell().getData();
+		normalize();
+
+		return grid.get(x, y);
 	}
 
 	public void set(T data) {
-		getCell().setData(data);
+		normalize();
+
+		grid.set(x, y, data);
 	}
 
 	public Cell<T> getCell() {
+		normalize();
+
+		return grid.cellAt(x, y);
+	}
+
+	private void normalize() {
 		if (x < 0)
 			x++;
 		if( y < 0)
 			y++;
-
-		return grid.cellAt(x, y);
 	}
 
 	public T up() {
@@ -0,0 +1,125 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/*
+ * Log of the cells written to since the last drain, as linear indices of the
+ * grid it was started on, each at most once and in order of first change.
+ * Dirty rows are kept alongside for consumers that sync row by row. Writes
+ * through views of that grid are logged too, in the grid's coordinates.
+ *
+ * Only writes through the grid are seen; changes inside mutable elements
+ * have to be reported with mark().
+ */
+public class GridJournal {
+
+	private int originX;
+	private int originY;
+	private int width;
+	private int height;
+
+	private long[] marked;
+	private long[] dirtyRows;
+
+	private int[] log;
+	private int size;
+
+	public GridJournal(int width, int height) {
+		this(0, 0, width, height);
+	}
+
+	GridJournal(int originX, int originY, int width, int height) {
+		this.originX = originX;
+		this.originY = originY;
+		this.width = width;
+		this.height = height;
+
+		marked = new long[(width * height + 63) >>> 6];
+		dirtyRows = new long[(height + 63) >>> 6];
+		log = new int[16];
+	}
+
+	public void mark(int linear) {
+		if ((marked[linear >>> 6] & 1L << linear) != 0)
+			return;
+
+		marked[linear >>> 6] |= 1L << linear;
+
+		int y = linear / width;
+		dirtyRows[y >>> 6] |= 1L << y;
+
+		if (size == log.length)
+			log = Arrays.copyOf(log, size * 2);
+
+		log[size++] = linear;
+	}
+
+	public void mark(int x, int y) {
+		mark(y * width + x);
+	}
+
+	/*
+	 * Coordinates of the backing store, as handed in by the grid and its
+	 * views; anything outside the journaled area is ignored.
+	 */
+	void markBacking(int x, int y) {
+		x -= originX;
+		y -= originY;
+
+		if (x >= 0 && x < width && y >= 0 && y < height)
+			mark(y * width + x);
+	}
+
+	void markBacking(int x, int y, int width, int height) {
+		for (int j = y; j < y + height; j++) {
+			for (int i = x; i < x + width; i++) {
+				markBacking(i, j);
+			}
+		}
+	}
+
+	public boolean isMarked(int linear) {
+		return (marked[linear >>> 6] & 1L << linear) != 0;
+	}
+
+	public boolean isRowDirty(int y) {
+		return (dirtyRows[y >>> 6] & 1L << y) != 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/*
+	 * Hands every logged index to consumer and clears the journal.
+	 */
+	public void drain(IntConsumer consumer) {
+		for (int i = 0; i < size; i++) {
+			consumer.accept(log[i]);
+		}
+
+		clear();
+	}
+
+	public int[] drain() {
+		int[] changes = Arrays.copyOf(log, size);
+		clear();
+
+		return changes;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			int linear = log[i];
+			marked[linear >>> 6] = 0;
+			dirtyRows[linear / width >>> 6] = 0;
+		}
+
+		size = 0;
+	}
+}
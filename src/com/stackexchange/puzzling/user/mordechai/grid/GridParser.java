@@ -0,0 +1,168 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Single pass, streaming grid parser. Input is read through a Readable, so
+ * both a java.io.Reader and a CharBuffer can be used as source. Cells are
+ * mapped as they are tokenized and the grid is allocated once, when its final
+ * size is known. Rows may be ragged; missing cells are left null.
+ * 
+ * Carriage returns are ignored and a line feed at the very end of the input
+ * doesn't start a new row.
+ */
+public class GridParser<E> {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private Readable in;
+	private CharBuffer buffer;
+	private TokenMapper<E> mapper;
+
+	private StringBuilder token;
+	private List<E> values;
+	private int[] rowEnds;
+	private int rows;
+	private int width;
+	private int x;
+
+	private GridParser(Readable in, TokenMapper<E> mapper) {
+		this.in = in;
+		this.mapper = mapper;
+
+		buffer = CharBuffer.allocate(BUFFER_SIZE);
+		buffer.flip();
+
+		token = new StringBuilder();
+		values = new ArrayList<>();
+		rowEnds = new int[64];
+	}
+
+	/*
+	 * CSV, with quoted values that may contain the delimiter, line breaks and
+	 * doubled quotes.
+	 */
+	public static <E> Grid<E> parseCSV(Readable in, char delimiter, TokenMapper<E> mapper) throws IOException {
+		GridParser<E> parser = new GridParser<>(in, mapper);
+		parser.parseCSV(delimiter);
+
+		return parser.build();
+	}
+
+	public static <E> Grid<E> parseCSV(Readable in, TokenMapper<E> mapper) throws IOException {
+		return parseCSV(in, ',', mapper);
+	}
+
+	/*
+	 * One cell per character.
+	 */
+	public static <E> Grid<E> parseCharacters(Readable in, TokenMapper<E> mapper) throws IOException {
+		GridParser<E> parser = new GridParser<>(in, mapper);
+		parser.parseCharacters();
+
+		return parser.build();
+	}
+
+	private int read() throws IOException {
+		if (!buffer.hasRemaining()) {
+			buffer.clear();
+
+			int read;
+			do {
+				read = in.read(buffer);
+			} while (read == 0);
+
+			buffer.flip();
+
+			if (read < 0)
+				return -1;
+		}
+
+		return buffer.get();
+	}
+
+	private void parseCSV(char delimiter) throws IOException {
+		boolean quoted = false;
+		boolean started = false;
+
+		int ch;
+		while ((ch = read()) >= 0) {
+			if (quoted) {
+				started = true;
+				if (ch == '"')
+					quoted = false;
+				else
+					token.append((char) ch);
+			} else if (ch == '"') {
+				quoted = true;
+				if (started) // doubled quote in the middle of a value
+					token.append('"');
+			} else if (ch == delimiter) {
+				endToken();
+				started = false;
+			} else if (ch == '\n') {
+				if (x > 0 || started || token.length() > 0)
+					endToken();
+				started = false;
+				endRow();
+			} else if (ch != '\r') {
+				token.append((char) ch);
+			}
+		}
+
+		if (x > 0 || started || token.length() > 0) {
+			endToken();
+			endRow();
+		}
+	}
+
+	private void parseCharacters() throws IOException {
+		int ch;
+		while ((ch = read()) >= 0) {
+			if (ch == '\n') {
+				endRow();
+			} else if (ch != '\r') {
+				token.append((char) ch);
+				endToken();
+			}
+		}
+
+		if (x > 0)
+			endRow();
+	}
+
+	private void endToken() {
+		values.add(mapper.map(x, rows, token));
+		token.setLength(0);
+		x++;
+	}
+
+	private void endRow() {
+		if (rows == rowEnds.length)
+			rowEnds = Arrays.copyOf(rowEnds, rows * 2);
+
+		rowEnds[rows++] = values.size();
+		width = Math.max(width, x);
+		x = 0;
+	}
+
+	private Grid<E> build() {
+		if (rows == 0)
+			return null;
+
+		Grid<E> grid = new Grid<>(width, rows);
+
+		int k = 0;
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; k < rowEnds[y]; x++, k++) {
+				grid.setUnchecked(x, y, values.get(k));
+			}
+		}
+
+		return grid;
+	}
+}
@@ -0,0 +1,158 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/*
+ * Row-major spliterator over a range of linear grid indices. Splits prefer
+ * row boundaries (tile rows on a tiled grid), so each half is a contiguous
+ * band of whole rows and a worker keeps walking adjacent memory; only a
+ * single remaining row is split in the middle. The CellLocation overloads
+ * hand out positions relative to the grid.
+ */
+public class GridSpliterator<T> implements Spliterator<T> {
+
+	/*
+	 * Below this many cells splitting costs more than it gains.
+	 */
+	static final int SPLIT_THRESHOLD = 1 << 12;
+
+	private Grid<T> grid;
+	private int index;
+	private int fence;
+
+	public GridSpliterator(Grid<T> grid) {
+		this(grid, 0, grid.length());
+	}
+
+	public GridSpliterator(Grid<T> grid, int from, int to) {
+		if (from < 0 || to < from || to > grid.length())
+			throw new IndexOutOfBoundsException("range: " + from + " to " + to);
+
+		this.grid = grid;
+		this.index = from;
+		this.fence = to;
+	}
+
+	@Override
+	public GridSpliterator<T> trySplit() {
+		int remaining = fence - index;
+		if (remaining < 2)
+			return null;
+
+		int width = grid.width();
+		int firstRow = index / width;
+		int lastRow = (fence - 1) / width;
+
+		int split;
+		if (lastRow > firstRow) {
+			split = alignedRow(firstRow, lastRow) * width;
+		} else {
+			split = index + remaining / 2;
+		}
+
+		GridSpliterator<T> prefix = new GridSpliterator<>(grid, index, split);
+		index = split;
+
+		return prefix;
+	}
+
+	/*
+	 * Middle row of (firstRow, lastRow], moved down to the grid's split
+	 * alignment if that still leaves both halves non-empty.
+	 */
+	private int alignedRow(int firstRow, int lastRow) {
+		int middle = (firstRow + lastRow + 1) / 2;
+		int alignment = grid.splitAlignment();
+		if (alignment <= 1)
+			return middle;
+
+		int aligned = middle - (grid.getY() + middle) % alignment;
+		if (aligned <= firstRow)
+			aligned += alignment;
+
+		return aligned <= lastRow ? aligned : middle;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (index >= fence)
+			return false;
+
+		action.accept(grid.getUnchecked(index++));
+		return true;
+	}
+
+	public boolean tryAdvance(CellLocation<? super T> action) {
+		if (index >= fence)
+			return false;
+
+		int width = grid.width();
+		action.accept(grid.getUnchecked(index), index % width, index / width);
+		index++;
+
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		for (; index < fence; index++) {
+			action.accept(grid.getUnchecked(index));
+		}
+	}
+
+	public void forEachRemaining(CellLocation<? super T> action) {
+		if (index >= fence)
+			return;
+
+		int width = grid.width();
+		int x = index % width;
+		int y = index / width;
+
+		for (; index < fence; index++) {
+			action.accept(grid.getUnchecked(x, y), x, y);
+
+			if (++x == width) {
+				x = 0;
+				y++;
+			}
+		}
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED;
+	}
+
+	/*
+	 * Fork-join traversal handing each cell with its position to action.
+	 */
+	static class ForEachTask<T> extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private GridSpliterator<T> spliterator;
+		private CellLocation<? super T> action;
+
+		ForEachTask(GridSpliterator<T> spliterator, CellLocation<? super T> action) {
+			this.spliterator = spliterator;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			GridSpliterator<T> prefix;
+			if (spliterator.estimateSize() > SPLIT_THRESHOLD && (prefix = spliterator.trySplit()) != null) {
+				invokeAll(new ForEachTask<>(prefix, action), new ForEachTask<>(spliterator, action));
+			} else {
+				spliterator.forEachRemaining(action);
+			}
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/*
+ * Immutable neighbor table for a grid shape, in compressed sparse row form.
+ * The neighbors of linear index i (the clipped 3x3 neighborhood, including i
+ * itself) are neighbor(k) for start(i) <= k < end(i), in row-major order.
+ * 
+ * The relation is symmetric, so the same table answers both "which cells does
+ * this clue cover" and "which clues cover this cell". Instances are shared by
+ * everyone working on grids of that size, but only for as long as someone
+ * holds on to one; the cache references them weakly.
+ */
+public class GridTopology {
+
+	private static final Map<Long, CacheEntry> cache = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<GridTopology> cleared = new ReferenceQueue<>();
+
+	private final int width;
+	private final int height;
+
+	private final int[] offsets;
+	private final int[] neighbors;
+
+	private GridTopology(int width, int height) {
+		this.width = width;
+		this.height = height;
+
+		int length = width * height;
+		offsets = new int[length + 1];
+
+		for (int y = 0; y < height; y++) {
+			int h = (y > 0 ? 2 : 1) + (y < height - 1 ? 1 : 0);
+			for (int x = 0; x < width; x++) {
+				int w = (x > 0 ? 2 : 1) + (x < width - 1 ? 1 : 0);
+				int i = y * width + x;
+				offsets[i + 1] = offsets[i] + w * h;
+			}
+		}
+
+		neighbors = new int[offsets[length]];
+
+		int k = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int maxX = Math.min(x + 1, width - 1);
+				int maxY = Math.min(y + 1, height - 1);
+
+				for (int j = Math.max(y - 1, 0); j <= maxY; j++) {
+					for (int i = Math.max(x - 1, 0); i <= maxX; i++) {
+						neighbors[k++] = j * width + i;
+					}
+				}
+			}
+		}
+	}
+
+	public static GridTopology of(int width, int height) {
+		if (width < 0)
+			throw new IllegalArgumentException(width + ": width < 0");
+		if (height < 0)
+			throw new IllegalArgumentException(height + ": height < 0");
+
+		for (Reference<? extends GridTopology> ref; (ref = cleared.poll()) != null;) {
+			CacheEntry entry = (CacheEntry) ref;
+			cache.remove(entry.key, entry);
+		}
+
+		long key = ((long) width << 32) | height;
+		CacheEntry entry = cache.get(key);
+		GridTopology topology = entry == null ? null : entry.get();
+
+		if (topology == null) {
+			topology = new GridTopology(width, height);
+			cache.put(key, new CacheEntry(key, topology));
+		}
+
+		return topology;
+	}
+
+	private static class CacheEntry extends WeakReference<GridTopology> {
+
+		private final long key;
+
+		CacheEntry(long key, GridTopology topology) {
+			super(topology, cleared);
+			this.key = key;
+		}
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	public int length() {
+		return width * height;
+	}
+
+	public int toLinear(int x, int y) {
+		return y * width + x;
+	}
+
+	public int start(int linear) {
+		return offsets[linear];
+	}
+
+	public int end(int linear) {
+		return offsets[linear + 1];
+	}
+
+	public int neighbor(int k) {
+		return neighbors[k];
+	}
+
+	public int degree(int linear) {
+		return offsets[linear + 1] - offsets[linear];
+	}
+
+	public void forEachNeighbor(int linear, IntConsumer consumer) {
+		for (int k = offsets[linear]; k < offsets[linear + 1]; k++) {
+			consumer.accept(neighbors[k]);
+		}
+	}
+}
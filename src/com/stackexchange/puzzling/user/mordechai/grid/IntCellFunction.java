@@ -0,0 +1,6 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+public interface IntCellFunction {
+
+	int get(int x, int y, int old);
+}
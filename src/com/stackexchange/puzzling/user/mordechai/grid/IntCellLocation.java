@@ -0,0 +1,5 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+public interface IntCellLocation {
+	void accept(int data, int x, int y);
+}
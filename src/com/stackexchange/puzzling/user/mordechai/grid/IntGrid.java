@@ -0,0 +1,277 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.ToIntFunction;
+
+/*
+ * Grid of primitive int values, free of boxing. Mirrors the Grid<T> API where
+ * it makes sense for a value type.
+ */
+public class IntGrid extends AbstractGrid {
+
+	private IntMatrix matrix;
+
+	protected IntGrid(IntMatrix matrix, int x, int y, int width, int height) {
+		super(matrix.getWidth(), x, y, width, height);
+		this.matrix = matrix;
+	}
+
+	public IntGrid(int width, int height) {
+		this(new IntMatrix(width, height), 0, 0, width, height);
+	}
+
+	public IntGrid(IntGrid other) {
+		this(other.width(), other.height());
+
+		other.copyTo(this);
+	}
+
+	public static <E> IntGrid of(Grid<E> grid, ToIntFunction<? super E> mapper) {
+		IntGrid copy = new IntGrid(grid.width(), grid.height());
+
+		for (int y = 0; y < grid.height(); y++) {
+			for (int x = 0; x < grid.width(); x++) {
+				copy.setUnchecked(x, y, mapper.applyAsInt(grid.getUnchecked(x, y)));
+			}
+		}
+
+		return copy;
+	}
+
+	protected IntMatrix getMatrix() {
+		return matrix;
+	}
+
+	public int get(int x, int y) {
+		checkRange(x, y);
+
+		return getUnchecked(x, y);
+	}
+
+	public int get(int linear) {
+		checkRange(linear);
+
+		return getUnchecked(linear);
+	}
+
+	public void set(int x, int y, int data) {
+		checkRange(x, y);
+
+		setUnchecked(x, y, data);
+	}
+
+	public void set(int linear, int data) {
+		checkRange(linear);
+
+		setUnchecked(linear, data);
+	}
+
+	protected int getUnchecked(int x, int y) {
+		return matrix.get(matrixIndex(x, y));
+	}
+
+	protected void setUnchecked(int x, int y, int data) {
+		matrix.set(matrixIndex(x, y), data);
+	}
+
+	protected int getUnchecked(int linear) {
+		return matrix.get(matrixIndex(linear));
+	}
+
+	protected void setUnchecked(int linear, int data) {
+		matrix.set(matrixIndex(linear), data);
+	}
+
+	public int indexOf(int data) {
+		for (int i = 0; i < length(); i++) {
+			if (getUnchecked(i) == data)
+				return i;
+		}
+
+		return -1;
+	}
+
+	public void fill(int data) {
+		fillRows(0, 0, width(), height(), data);
+	}
+
+	public void fill(IntCellFunction filler) {
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				setUnchecked(x, y, filler.get(x, y, getUnchecked(x, y)));
+			}
+		}
+	}
+
+	public int count(int data) {
+		int count = 0;
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				if (getUnchecked(x, y) == data)
+					count++;
+			}
+		}
+
+		return count;
+	}
+
+	public int count(IntPredicate predicate) {
+		int count = 0;
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				if (predicate.test(getUnchecked(x, y)))
+					count++;
+			}
+		}
+
+		return count;
+	}
+
+	public void forEach(IntCellLocation cell) {
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				cell.accept(getUnchecked(x, y), x, y);
+			}
+		}
+	}
+
+	/*
+	 * Neighborhood kernels, see Grid.
+	 */
+
+	public void forEachSurrounding(int x, int y, IntCellLocation cell) {
+		reduceSurrounding(x, y, (i, j) -> {
+			cell.accept(getUnchecked(i, j), i, j);
+			return 0;
+		});
+	}
+
+	public int countSurrounding(int x, int y, IntPredicate predicate) {
+		return reduceSurrounding(x, y, (i, j) -> predicate.test(getUnchecked(i, j)) ? 1 : 0);
+	}
+
+	public int countSurrounding(int x, int y, int data) {
+		return reduceSurrounding(x, y, (i, j) -> getUnchecked(i, j) == data ? 1 : 0);
+	}
+
+	/*
+	 * Single pass histogram of the surrounding values, each of which must be a
+	 * valid index into counts. Returns the number of cells visited.
+	 */
+	public int countSurrounding(int x, int y, int[] counts) {
+		Arrays.fill(counts, 0);
+
+		return reduceSurrounding(x, y, (i, j) -> {
+			counts[getUnchecked(i, j)]++;
+			return 1;
+		});
+	}
+
+	public int sumSurrounding(int x, int y) {
+		return reduceSurrounding(x, y, (i, j) -> getUnchecked(i, j));
+	}
+
+	public IntGrid view(int x, int y, int width, int height) {
+		checkView(x, y, width, height);
+
+		return new IntGrid(getMatrix(), x + getX(), y + getY(), width, height);
+	}
+
+	public IntGrid branch() {
+		return new IntGrid(this);
+	}
+
+	public <E> Grid<E> toGrid(IntFunction<? extends E> mapper) {
+		Grid<E> grid = new Grid<>(width(), height());
+
+		for (int y = 0; y < height(); y++) {
+			for (int x = 0; x < width(); x++) {
+				grid.setUnchecked(x, y, mapper.apply(getUnchecked(x, y)));
+			}
+		}
+
+		return grid;
+	}
+
+	public void copyTo(IntGrid other, int xOffset, int yOffset) {
+		checkCopy(other, xOffset, yOffset);
+
+		copyRows(0, 0, width(), height(), other, xOffset, yOffset);
+	}
+
+	public void copyTo(IntGrid other) {
+		copyTo(other, 0, 0);
+	}
+
+	/*
+	 * Bulk operations; these work on whole rows of the backing store rather
+	 * than cell by cell. Copies are safe when source and target overlap, e.g.
+	 * two views of the same grid.
+	 */
+
+	public void fill(int x, int y, int width, int height, int data) {
+		checkView(x, y, width, height);
+
+		fillRows(x, y, width, height, data);
+	}
+
+	private void fillRows(int x, int y, int width, int height, int data) {
+		if (isContiguous() && width == width()) {
+			int from = matrixIndex(x, y);
+			matrix.fill(from, from + width * height, data);
+			return;
+		}
+
+		for (int j = 0; j < height; j++) {
+			int from = matrixIndex(x, y + j);
+			matrix.fill(from, from + width, data);
+		}
+	}
+
+	public void copyTo(int x, int y, int width, int height, IntGrid other, int xOffset, int yOffset) {
+		checkView(x, y, width, height);
+		checkCopy(width, height, other, xOffset, yOffset);
+
+		copyRows(x, y, width, height, other, xOffset, yOffset);
+	}
+
+	private void copyRows(int x, int y, int width, int height, IntGrid other, int xOffset, int yOffset) {
+		IntMatrix dest = other.getMatrix();
+
+		if (isContiguous() && other.isContiguous() && width == width() && width == other.width()) {
+			matrix.copyTo(matrixIndex(x, y), dest, other.matrixIndex(xOffset, yOffset), width * height);
+			return;
+		}
+
+		if (dest == matrix && other.matrixIndex(xOffset, yOffset) > matrixIndex(x, y)) {
+			for (int j = height - 1; j >= 0; j--) {
+				matrix.copyTo(matrixIndex(x, y + j), dest, other.matrixIndex(xOffset, yOffset + j), width);
+			}
+		} else {
+			for (int j = 0; j < height; j++) {
+				matrix.copyTo(matrixIndex(x, y + j), dest, other.matrixIndex(xOffset, yOffset + j), width);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(length() * 3);
+
+		for (int y = 0; y < height(); y++) {
+			if (y > 0)
+				builder.append('\n');
+
+			for (int x = 0; x < width(); x++) {
+				if (x > 0)
+					builder.append(',');
+
+				builder.append(getUnchecked(x, y));
+			}
+		}
+
+		return builder.toString();
+	}
+}
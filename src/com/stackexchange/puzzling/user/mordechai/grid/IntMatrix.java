@@ -0,0 +1,50 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Arrays;
+
+/*
+ * Primitive counterpart of Matrix, laid out as data[y * width + x].
+ */
+public class IntMatrix {
+
+	private int width;
+	private int height;
+
+	private int[] data;
+
+	public IntMatrix(int width, int height) {
+		this.width = width;
+		this.height = height;
+
+		data = new int[width * height];
+	}
+
+	public int indexOf(int x, int y) {
+		return y * width + x;
+	}
+
+	public int get(int index) {
+		return data[index];
+	}
+
+	public void set(int index, int data) {
+		this.data[index] = data;
+	}
+
+	public void fill(int from, int to, int data) {
+		Arrays.fill(this.data, from, to, data);
+	}
+
+	public void copyTo(int index, IntMatrix dest, int destIndex, int length) {
+		System.arraycopy(data, index, dest.data, destIndex, length);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+}
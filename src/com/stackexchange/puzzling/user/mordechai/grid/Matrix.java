@@ -1,30 +1,129 @@
 package com.stackexchange.puzzling.user.mordechai.grid;
 
+import java.util.Arrays;
+
+/*
+ * Flat, row-major backing store. Cells are laid out as data[y * width + x] so
+ * that row traversal walks the array sequentially. No bounds checking is done
+ * by the index based accessors, callers are expected to validate first.
+ */
 public class Matrix<T> {
 
 	private int width;
 	private int height;
 
-	private Cell<T>[][] cells;
+	private Object[] data;
+
+	private long modifications;
 
-	@SuppressWarnings("unchecked")
 	public Matrix(int width, int height) {
+		this(width, height, new Object[width * height]);
+	}
+
+	/*
+	 * For subclasses that provide their own storage by overriding the index
+	 * based accessors; data may then be null.
+	 */
+	protected Matrix(int width, int height, Object[] data) {
 		this.width = width;
 		this.height = height;
+		this.data = data;
+	}
 
-		cells = new Cell[width][height];
-		for (int i = 0; i < cells.length; i++) {
-			for (int j = 0; j < cells[i].length; j++) {
-				cells[i][j] = new Cell<T>(i, j);
-			}
+	/*
+	 * Shallow copy of the given region into a new matrix of the same kind.
+	 */
+	public Matrix<T> copy(int x, int y, int width, int height) {
+		Matrix<T> copy = new Matrix<>(width, height);
+		for (int j = 0; j < height; j++) {
+			System.arraycopy(data, indexOf(x, y + j), copy.data, j * width, width);
 		}
+
+		return copy;
+	}
+
+	/*
+	 * Whether distinct indices may be written from several threads at once.
+	 * Holds for the flat array, not for storage shared between copies.
+	 */
+	public boolean isConcurrentWritable() {
+		return data != null;
 	}
 
 	public Cell<T> cellAt(int x, int y) {
 		if (x < 0 || x >= width || y < 0 || y >= height)
 			return null;
 
-		return cells[x][y];
+		return new Cell<T>(this, x, y);
+	}
+
+	public int indexOf(int x, int y) {
+		return y * width + x;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		return (T) data[index];
+	}
+
+	public void set(int index, T data) {
+		this.data[index] = data;
+		modifications++;
+	}
+
+	public T get(int x, int y) {
+		return get(indexOf(x, y));
+	}
+
+	public void set(int x, int y, T data) {
+		set(indexOf(x, y), data);
+	}
+
+	/*
+	 * Bulk operations over consecutive indices. copyTo() is safe for
+	 * overlapping ranges within the same matrix.
+	 */
+
+	public void fill(int from, int to, T data) {
+		if (this.data != null) {
+			Arrays.fill(this.data, from, to, data);
+			modifications++;
+			return;
+		}
+
+		for (int i = from; i < to; i++) {
+			set(i, data);
+		}
+	}
+
+	public void copyTo(int index, Matrix<? super T> dest, int destIndex, int length) {
+		if (data != null && dest.data != null) {
+			System.arraycopy(data, index, dest.data, destIndex, length);
+			dest.modifications++;
+			return;
+		}
+
+		if (dest == this && destIndex > index) {
+			for (int i = length - 1; i >= 0; i--) {
+				dest.set(destIndex + i, get(index + i));
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				dest.set(destIndex + i, get(index + i));
+			}
+		}
+	}
+
+	/*
+	 * Number of writes so far, for callers caching something derived from the
+	 * contents. Subclasses that override the writes call modified().
+	 */
+	public long modifications() {
+		return modifications;
+	}
+
+	protected void modified() {
+		modifications++;
 	}
 
 	public int getWidth() {
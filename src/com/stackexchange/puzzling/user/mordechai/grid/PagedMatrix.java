@@ -0,0 +1,104 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+/*
+ * Persistent matrix made of fixed size pages of consecutive (row-major)
+ * indices. copy() of the whole matrix is O(1): both matrices share the page
+ * table and the pages, the first write on either side duplicates the page
+ * table, and each page is duplicated only when it is first written to.
+ * Pages that were never written to aren't allocated at all.
+ * 
+ * Not thread safe; branches may be handed to other threads once created.
+ */
+public class PagedMatrix<T> extends Matrix<T> {
+
+	private static final int PAGE_BITS = 8;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	private Object[][] pages;
+	private boolean[] owned;
+	private boolean tableShared;
+
+	public PagedMatrix(int width, int height) {
+		super(width, height, null);
+
+		pages = new Object[(width * height + PAGE_MASK) >>> PAGE_BITS][];
+		owned = new boolean[pages.length];
+	}
+
+	private PagedMatrix(PagedMatrix<T> other) {
+		super(other.getWidth(), other.getHeight(), null);
+
+		pages = other.pages;
+		tableShared = true;
+		other.tableShared = true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		Object[] page = pages[index >>> PAGE_BITS];
+		if (page == null)
+			return null;
+
+		return (T) page[index & PAGE_MASK];
+	}
+
+	@Override
+	public void set(int index, T data) {
+		if (tableShared) {
+			pages = pages.clone();
+			owned = new boolean[pages.length];
+			tableShared = false;
+		}
+
+		int p = index >>> PAGE_BITS;
+		Object[] page = pages[p];
+
+		if (!owned[p]) {
+			if (page == null) {
+				if (data == null)
+					return;
+
+				page = new Object[PAGE_SIZE];
+			} else {
+				page = page.clone();
+			}
+
+			pages[p] = page;
+			owned[p] = true;
+		}
+
+		page[index & PAGE_MASK] = data;
+		modified();
+	}
+
+	@Override
+	public Matrix<T> copy(int x, int y, int width, int height) {
+		if (x == 0 && y == 0 && width == getWidth() && height == getHeight())
+			return new PagedMatrix<>(this);
+
+		PagedMatrix<T> copy = new PagedMatrix<>(width, height);
+		for (int j = 0; j < height; j++) {
+			for (int i = 0; i < width; i++) {
+				copy.set(copy.indexOf(i, j), get(indexOf(x + i, y + j)));
+			}
+		}
+
+		return copy;
+	}
+
+	/*
+	 * Number of pages currently allocated by this matrix or shared with its
+	 * branches.
+	 */
+	public int allocatedPages() {
+		int count = 0;
+		for (Object[] page : pages) {
+			if (page != null)
+				count++;
+		}
+
+		return count;
+	}
+}
@@ -19,7 +19,7 @@ public class RowList<T> extends AbstractList<T> {
 
 	@Override
 	public int size() {
-		return grid.height();
+		return grid.width();
 	}
 
 	@Override
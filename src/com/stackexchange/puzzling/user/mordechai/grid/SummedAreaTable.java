@@ -0,0 +1,194 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+/*
+ * Integral image over a grid of small counts: sums[y * (width + 1) + x] is
+ * the sum of all cells above and left of (x, y), so any rectangle sum takes
+ * four lookups.
+ *
+ * Point edits are not folded into the table right away, as that would touch
+ * everything below and right of the point. They are queued and added to the
+ * queries that cover them, and the table is rebuilt once the queue grows
+ * past a fraction of the grid.
+ *
+ * The queue holds up to sqrt(n) edits for n cells, so this trades query
+ * time for edit time: a query costs four lookups plus a scan of the queue,
+ * O(sqrt(n)) at worst, and an edit costs O(sqrt(n)) amortized over the
+ * rebuilds. That suits interleaved edits and queries. After a batch of edits
+ * followed by many queries, call rebuild() to get O(1) queries back.
+ * Queries never write, so they may run concurrently between edits.
+ */
+public class SummedAreaTable {
+
+	private int width;
+	private int height;
+	private int stride;
+
+	private int[] values;
+	private int[] sums;
+
+	private int[] pending;
+	private BitSet isPending;
+	private int pendingSize;
+	private int pendingLimit;
+
+	private SummedAreaTable(int width, int height, int[] values) {
+		this.width = width;
+		this.height = height;
+		this.values = values;
+
+		stride = width + 1;
+		sums = new int[stride * (height + 1)];
+		pending = new int[16];
+		isPending = new BitSet();
+		pendingLimit = Math.max(16, (int) Math.sqrt(width * height));
+
+		rebuild();
+	}
+
+	public static <E> SummedAreaTable of(Grid<E> grid, Predicate<? super E> predicate) {
+		int[] values = new int[grid.length()];
+		for (int y = 0; y < grid.height(); y++) {
+			for (int x = 0; x < grid.width(); x++) {
+				if (predicate.test(grid.getUnchecked(x, y)))
+					values[y * grid.width() + x] = 1;
+			}
+		}
+
+		return new SummedAreaTable(grid.width(), grid.height(), values);
+	}
+
+	public static SummedAreaTable of(ByteGrid grid) {
+		int[] values = new int[grid.length()];
+		for (int y = 0; y < grid.height(); y++) {
+			for (int x = 0; x < grid.width(); x++) {
+				values[y * grid.width() + x] = grid.getUnchecked(x, y);
+			}
+		}
+
+		return new SummedAreaTable(grid.width(), grid.height(), values);
+	}
+
+	public static SummedAreaTable of(BitGrid grid) {
+		int[] values = new int[grid.length()];
+		for (int y = 0; y < grid.height(); y++) {
+			for (int x = 0; x < grid.width(); x++) {
+				if (grid.getUnchecked(x, y))
+					values[y * grid.width() + x] = 1;
+			}
+		}
+
+		return new SummedAreaTable(grid.width(), grid.height(), values);
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	public int get(int x, int y) {
+		checkRange(x, y);
+
+		return values[y * width + x];
+	}
+
+	/*
+	 * Point edit; cheap, the table itself is brought up to date lazily.
+	 */
+	public void set(int x, int y, int value) {
+		checkRange(x, y);
+
+		int linear = y * width + x;
+		if (values[linear] == value)
+			return;
+
+		values[linear] = value;
+
+		if (isPending.get(linear))
+			return;
+
+		if (pendingSize == pendingLimit) {
+			rebuild();
+			return;
+		}
+
+		if (pendingSize == pending.length)
+			pending = Arrays.copyOf(pending, pendingSize * 2);
+
+		pending[pendingSize++] = linear;
+		isPending.set(linear);
+	}
+
+	public void add(int x, int y, int delta) {
+		set(x, y, get(x, y) + delta);
+	}
+
+	/*
+	 * Sum over the rectangle, which must lie within the table.
+	 */
+	public int sum(int x, int y, int width, int height) {
+		if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > this.width || y + height > this.height)
+			throw new IndexOutOfBoundsException(
+					"Rectangle " + x + "," + y + " " + width + "x" + height + " outside " + this.width + "x" + this.height);
+
+		int x1 = x + width, y1 = y + height;
+		int sum = sums[y1 * stride + x1] - sums[y * stride + x1] - sums[y1 * stride + x] + sums[y * stride + x];
+
+		for (int i = 0; i < pendingSize; i++) {
+			int px = pending[i] % this.width, py = pending[i] / this.width;
+			if (px >= x && px < x1 && py >= y && py < y1)
+				sum += values[pending[i]] - tableValue(px, py);
+		}
+
+		return sum;
+	}
+
+	/*
+	 * Sum over the 3x3 block around (x, y), clipped to the table.
+	 */
+	public int sumSurrounding(int x, int y) {
+		checkRange(x, y);
+
+		int x0 = Math.max(0, x - 1), y0 = Math.max(0, y - 1);
+		int x1 = Math.min(width, x + 2), y1 = Math.min(height, y + 2);
+
+		return sum(x0, y0, x1 - x0, y1 - y0);
+	}
+
+	public int total() {
+		return sum(0, 0, width, height);
+	}
+
+	/*
+	 * The value at (x, y) as the table currently has it, which may differ
+	 * from values[] for pending edits.
+	 */
+	private int tableValue(int x, int y) {
+		return sums[(y + 1) * stride + x + 1] - sums[y * stride + x + 1] - sums[(y + 1) * stride + x]
+				+ sums[y * stride + x];
+	}
+
+	public void rebuild() {
+		for (int y = 0; y < height; y++) {
+			int row = 0;
+			for (int x = 0; x < width; x++) {
+				row += values[y * width + x];
+				sums[(y + 1) * stride + x + 1] = sums[y * stride + x + 1] + row;
+			}
+		}
+
+		pendingSize = 0;
+		isPending.clear();
+	}
+
+	private void checkRange(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IndexOutOfBoundsException("x,y: " + x + "," + y);
+	}
+}
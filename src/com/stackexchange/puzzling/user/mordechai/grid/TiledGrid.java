@@ -0,0 +1,231 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ * Grid over a TiledMatrix, for huge and mostly empty grids. Whole-grid
+ * operations walk tile by tile, views and branches stay tiled, and parallel
+ * work is split on tile rows.
+ */
+public class TiledGrid<T> extends Grid<T> {
+
+	private TiledMatrix<T> tiled;
+
+	protected TiledGrid(TiledMatrix<T> matrix, int x, int y, int width, int height) {
+		super(matrix, x, y, width, height);
+		this.tiled = matrix;
+	}
+
+	public TiledGrid(int width, int height) {
+		this(new TiledMatrix<>(width, height), 0, 0, width, height);
+	}
+
+	public TiledGrid(int width, int height, int tileBits) {
+		this(new TiledMatrix<>(width, height, tileBits), 0, 0, width, height);
+	}
+
+	public int tileSize() {
+		return tiled.getTileSize();
+	}
+
+	/*
+	 * The tiled matrix maps coordinates with shifts and masks, so the
+	 * accessors skip the round trip through a linear index.
+	 */
+
+	@Override
+	protected T getUnchecked(int x, int y) {
+		return tiled.get(getX() + x, getY() + y);
+	}
+
+	@Override
+	protected void setUnchecked(int x, int y, T data) {
+		tiled.set(getX() + x, getY() + y, data);
+
+		GridJournal journal = getJournal();
+		if (journal != null)
+			journal.markBacking(getX() + x, getY() + y);
+	}
+
+	@Override
+	protected T getUnchecked(int linear) {
+		return getUnchecked(linear % width(), linear / width());
+	}
+
+	@Override
+	protected void setUnchecked(int linear, T data) {
+		setUnchecked(linear % width(), linear / width(), data);
+	}
+
+	@Override
+	public TiledGrid<T> view(int x, int y, int width, int height) {
+		checkView(x, y, width, height);
+
+		return share(new TiledGrid<>(tiled, x + getX(), y + getY(), width, height));
+	}
+
+	@Override
+	public TiledGrid<T> branch() {
+		TiledMatrix<T> copy = (TiledMatrix<T>) tiled.copy(getX(), getY(), width(), height());
+
+		return new TiledGrid<>(copy, 0, 0, width(), height());
+	}
+
+	/*
+	 * The parts of this grid covered by each backing tile, as views; tiles at
+	 * the edges of a view are clipped.
+	 */
+	public Stream<TiledGrid<T>> tiles() {
+		int size = tileSize();
+		int firstX = getX() / size, firstY = getY() / size;
+		int across = (getX() + width() - 1) / size - firstX + 1;
+		int down = (getY() + height() - 1) / size - firstY + 1;
+
+		return IntStream.range(0, across * down).mapToObj(i -> {
+			int x0 = Math.max(getX(), (firstX + i % across) * size);
+			int y0 = Math.max(getY(), (firstY + i / across) * size);
+			int x1 = Math.min(getX() + width(), x0 - x0 % size + size);
+			int y1 = Math.min(getY() + height(), y0 - y0 % size + size);
+
+			return view(x0 - getX(), y0 - getY(), x1 - x0, y1 - y0);
+		});
+	}
+
+	private interface TileRegion {
+		void accept(int x0, int y0, int x1, int y1, boolean allocated);
+	}
+
+	/*
+	 * Hands out the region of each tile in grid coordinates, [x0, x1) x [y0, y1).
+	 */
+	private void forEachTile(TileRegion region) {
+		int size = tileSize();
+
+		for (int ty = getY() / size; ty <= (getY() + height() - 1) / size; ty++) {
+			int y0 = Math.max(0, ty * size - getY());
+			int y1 = Math.min(height(), (ty + 1) * size - getY());
+
+			for (int tx = getX() / size; tx <= (getX() + width() - 1) / size; tx++) {
+				int x0 = Math.max(0, tx * size - getX());
+				int x1 = Math.min(width(), (tx + 1) * size - getX());
+
+				region.accept(x0, y0, x1, y1, tiled.isAllocated(tx, ty));
+			}
+		}
+	}
+
+	@Override
+	public void forEach(CellLocation<T> cell) {
+		forEachTile((x0, y0, x1, y1, allocated) -> {
+			for (int y = y0; y < y1; y++) {
+				for (int x = x0; x < x1; x++) {
+					cell.accept(getUnchecked(x, y), x, y);
+				}
+			}
+		});
+	}
+
+	@Override
+	public void fill(CellFunction<T> filler) {
+		forEachTile((x0, y0, x1, y1, allocated) -> {
+			for (int y = y0; y < y1; y++) {
+				for (int x = x0; x < x1; x++) {
+					setUnchecked(x, y, filler.get(x, y, getUnchecked(x, y)));
+				}
+			}
+		});
+	}
+
+	/*
+	 * Filling with null hands the tiles that lie wholly inside this grid back
+	 * to the sentinel rather than clearing them cell by cell.
+	 */
+	@Override
+	public void fill(T data) {
+		if (data != null) {
+			super.fill(data);
+			return;
+		}
+
+		GridJournal journal = getJournal();
+		if (journal != null)
+			journal.markBacking(getX(), getY(), width(), height());
+
+		int size = tileSize();
+		forEachTile((x0, y0, x1, y1, allocated) -> {
+			if (!allocated)
+				return;
+
+			int left = getX() + x0, top = getY() + y0;
+			int right = getX() + x1, bottom = getY() + y1;
+
+			if (left % size == 0 && top % size == 0 && (right % size == 0 || right == tiled.getWidth())
+					&& (bottom % size == 0 || bottom == tiled.getHeight())) {
+				tiled.clearTile(left / size, top / size);
+				return;
+			}
+
+			for (int y = top; y < bottom; y++) {
+				for (int x = left; x < right; x++) {
+					tiled.set(x, y, null);
+				}
+			}
+		});
+	}
+
+	@Override
+	public int count(Predicate<T> predicate) {
+		int[] count = new int[1];
+		// whether the cells of unallocated tiles count; null is tested once, and
+		// only if such a tile shows up. Cells of allocated tiles are tested one
+		// by one, nulls included
+		Boolean[] countsEmpty = new Boolean[1];
+
+		forEachTile((x0, y0, x1, y1, allocated) -> {
+			if (!allocated) {
+				if (countsEmpty[0] == null)
+					countsEmpty[0] = predicate.test(null);
+				if (countsEmpty[0])
+					count[0] += (x1 - x0) * (y1 - y0);
+				return;
+			}
+
+			for (int y = y0; y < y1; y++) {
+				for (int x = x0; x < x1; x++) {
+					if (predicate.test(getUnchecked(x, y)))
+						count[0]++;
+				}
+			}
+		});
+
+		return count[0];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		boolean[] empty = { true };
+
+		forEachTile((x0, y0, x1, y1, allocated) -> {
+			if (!allocated || !empty[0])
+				return;
+
+			for (int y = y0; y < y1; y++) {
+				for (int x = x0; x < x1; x++) {
+					if (getUnchecked(x, y) != null) {
+						empty[0] = false;
+						return;
+					}
+				}
+			}
+		});
+
+		return empty[0];
+	}
+
+	@Override
+	protected int splitAlignment() {
+		return tileSize();
+	}
+}
@@ -0,0 +1,158 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import java.util.Arrays;
+
+/*
+ * Sparse matrix made of square tiles of tileSize x tileSize cells, tileSize
+ * being a power of two. Tiles are allocated on the first non-null write;
+ * until then they all point to one shared, always empty, sentinel tile, so
+ * reads never need to check. Memory thus scales with the populated area
+ * rather than the full extent.
+ * 
+ * Not thread safe, not even for writes to distinct tiles.
+ */
+public class TiledMatrix<T> extends Matrix<T> {
+
+	public static final int DEFAULT_TILE_BITS = 6;
+
+	private int tileBits;
+	private int tileMask;
+	private int across;
+
+	private Object[][] tiles;
+	private Object[] empty;
+
+	public TiledMatrix(int width, int height) {
+		this(width, height, DEFAULT_TILE_BITS);
+	}
+
+	public TiledMatrix(int width, int height, int tileBits) {
+		super(width, height, null);
+
+		if (tileBits < 1 || tileBits > 12)
+			throw new IllegalArgumentException("tileBits: " + tileBits);
+
+		this.tileBits = tileBits;
+		tileMask = (1 << tileBits) - 1;
+		across = (width + tileMask) >>> tileBits;
+
+		empty = new Object[1 << 2 * tileBits];
+		tiles = new Object[across * ((height + tileMask) >>> tileBits)][];
+		Arrays.fill(tiles, empty);
+	}
+
+	public int getTileSize() {
+		return 1 << tileBits;
+	}
+
+	public int tilesAcross() {
+		return across;
+	}
+
+	public int tilesDown() {
+		return tiles.length / Math.max(1, across);
+	}
+
+	public boolean isAllocated(int tileX, int tileY) {
+		return tiles[tileY * across + tileX] != empty;
+	}
+
+	public int allocatedTiles() {
+		int count = 0;
+		for (Object[] tile : tiles) {
+			if (tile != empty)
+				count++;
+		}
+
+		return count;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int x, int y) {
+		return (T) tiles[(y >>> tileBits) * across + (x >>> tileBits)][(y & tileMask) << tileBits | x & tileMask];
+	}
+
+	@Override
+	public void set(int x, int y, T data) {
+		int t = (y >>> tileBits) * across + (x >>> tileBits);
+		Object[] tile = tiles[t];
+
+		if (tile == empty) {
+			if (data == null)
+				return;
+
+			tile = new Object[empty.length];
+			tiles[t] = tile;
+		}
+
+		tile[(y & tileMask) << tileBits | x & tileMask] = data;
+		modified();
+	}
+
+	@Override
+	public T get(int index) {
+		return get(index % getWidth(), index / getWidth());
+	}
+
+	@Override
+	public void set(int index, T data) {
+		set(index % getWidth(), index / getWidth(), data);
+	}
+
+	@Override
+	public void fill(int from, int to, T data) {
+		int width = getWidth();
+		for (int i = from; i < to;) {
+			int x = i % width;
+			int y = i / width;
+			int end = Math.min(to, i - x + width);
+
+			for (; i < end; i++, x++) {
+				set(x, y, data);
+			}
+		}
+	}
+
+	/*
+	 * Returns a tile to the sentinel, dropping its contents.
+	 */
+	public void clearTile(int tileX, int tileY) {
+		tiles[tileY * across + tileX] = empty;
+		modified();
+	}
+
+	@Override
+	public Matrix<T> copy(int x, int y, int width, int height) {
+		TiledMatrix<T> copy = new TiledMatrix<>(width, height, tileBits);
+
+		if (x == 0 && y == 0 && width == getWidth() && height == getHeight()) {
+			for (int t = 0; t < tiles.length; t++) {
+				if (tiles[t] != empty)
+					copy.tiles[t] = tiles[t].clone();
+			}
+
+			return copy;
+		}
+
+		for (int ty = y >>> tileBits; ty <= (y + height - 1) >>> tileBits; ty++) {
+			for (int tx = x >>> tileBits; tx <= (x + width - 1) >>> tileBits; tx++) {
+				if (!isAllocated(tx, ty))
+					continue;
+
+				int x0 = Math.max(x, tx << tileBits);
+				int y0 = Math.max(y, ty << tileBits);
+				int x1 = Math.min(x + width, (tx + 1) << tileBits);
+				int y1 = Math.min(y + height, (ty + 1) << tileBits);
+
+				for (int j = y0; j < y1; j++) {
+					for (int i = x0; i < x1; i++) {
+						copy.set(i - x, j - y, get(i, j));
+					}
+				}
+			}
+		}
+
+		return copy;
+	}
+}
@@ -0,0 +1,10 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+/*
+ * Like CellMapper, but receives the token as a reused character sequence that
+ * is only valid for the duration of the call, sparing a String per cell.
+ */
+public interface TokenMapper<T> {
+
+	public T map(int x, int y, CharSequence token);
+}
@@ -0,0 +1,135 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+/*
+ * View of a source grid under a rotation, reflection or transposition,
+ * optionally cropped. Cell (x, y) here is cell
+ * 
+ * (ox + x * xdx + y * ydx, oy + x * xdy + y * ydy)
+ * 
+ * of the source; transforming a transformed grid composes the maps, so there
+ * is never more than one level of indirection. Reads and writes go through
+ * the source, including its journal.
+ * 
+ * A journal started on the view itself logs in the view's coordinates, like
+ * on any grid, and is what getJournal() returns; the source's journal goes on
+ * logging in its own. Views made from a journaled view are layered on top of
+ * it instead of composed, so their writes are logged there too.
+ */
+public class TransformedGrid<T> extends Grid<T> {
+
+	private Grid<T> source;
+
+	private int ox, oy;
+	private int xdx, xdy;
+	private int ydx, ydy;
+
+	private TransformedGrid(Grid<T> source, int width, int height, int ox, int oy, int xdx, int xdy, int ydx,
+			int ydy) {
+		super(source.getMatrix(), 0, 0, width, height);
+
+		this.source = source;
+		this.ox = ox;
+		this.oy = oy;
+		this.xdx = xdx;
+		this.xdy = xdy;
+		this.ydx = ydx;
+		this.ydy = ydy;
+	}
+
+	/*
+	 * The map is given from the new grid into the coordinates of grid.
+	 */
+	static <T> Grid<T> transform(Grid<T> grid, int width, int height, int ox, int oy, int xdx, int xdy, int ydx,
+			int ydy) {
+		if (!(grid instanceof TransformedGrid) || grid.getJournal() != null)
+			return new TransformedGrid<>(grid, width, height, ox, oy, xdx, xdy, ydx, ydy);
+
+		TransformedGrid<T> t = (TransformedGrid<T>) grid;
+		return new TransformedGrid<>(t.source, width, height,
+				t.sourceX(ox, oy), t.sourceY(ox, oy),
+				t.xdx * xdx + t.ydx * xdy, t.xdy * xdx + t.ydy * xdy,
+				t.xdx * ydx + t.ydx * ydy, t.xdy * ydx + t.ydy * ydy);
+	}
+
+	@Override
+	protected boolean isJournaled() {
+		return super.isJournaled() || source.isJournaled();
+	}
+
+	private int sourceX(int x, int y) {
+		return ox + x * xdx + y * ydx;
+	}
+
+	private int sourceY(int x, int y) {
+		return oy + x * xdy + y * ydy;
+	}
+
+	@Override
+	protected T getUnchecked(int x, int y) {
+		return source.getUnchecked(sourceX(x, y), sourceY(x, y));
+	}
+
+	@Override
+	protected void setUnchecked(int x, int y, T data) {
+		source.setUnchecked(sourceX(x, y), sourceY(x, y), data);
+
+		GridJournal journal = getJournal();
+		if (journal != null)
+			journal.mark(x, y);
+	}
+
+	@Override
+	protected T getUnchecked(int linear) {
+		return getUnchecked(linear % width(), linear / width());
+	}
+
+	@Override
+	protected void setUnchecked(int linear, T data) {
+		setUnchecked(linear % width(), linear / width(), data);
+	}
+
+	@Override
+	protected Cell<T> cellAt(int x, int y) {
+		if (x < 0 || x >= width() || y < 0 || y >= height())
+			return null;
+
+		return source.cellAt(sourceX(x, y), sourceY(x, y));
+	}
+
+	@Override
+	protected int indexOfCell(Cell<T> cell) {
+		int linear = source.indexOfCell(cell);
+		if (linear < 0)
+			return -1;
+
+		// the maps are orthogonal with a determinant of +-1
+		int dx = source.toX(linear) - ox;
+		int dy = source.toY(linear) - oy;
+		int det = xdx * ydy - ydx * xdy;
+
+		int x = (ydy * dx - ydx * dy) * det;
+		int y = (xdx * dy - xdy * dx) * det;
+
+		if (x < 0 || x >= width() || y < 0 || y >= height())
+			return -1;
+
+		return y * width() + x;
+	}
+
+	@Override
+	public Grid<T> view(int x, int y, int width, int height) {
+		checkView(x, y, width, height);
+
+		return transform(this, width, height, x, y, 1, 0, 0, 1);
+	}
+
+	@Override
+	public Grid<T> branch() {
+		return branch(data -> data);
+	}
+
+	@Override
+	protected boolean isDirect() {
+		return false;
+	}
+}
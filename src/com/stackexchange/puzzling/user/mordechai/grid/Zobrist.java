@@ -0,0 +1,53 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+/*
+ * Random keys for Zobrist hashing: the hash of a grid is the XOR of
+ * key(i, state) over all its cells, so changing one cell updates it in O(1)
+ * by XORing out the old key and in the new one. State 0 has key 0, which
+ * keeps cells in their default state out of the hash altogether.
+ *
+ * Keys are derived from the seed, cell and state by the SplitMix64 mixer
+ * rather than drawn into a table, so they cost no memory, work for grids of
+ * any size and can be compared across instances and runs.
+ */
+public class Zobrist {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final int states;
+	private final long base;
+
+	public Zobrist(int states, long seed) {
+		if (states < 1)
+			throw new IllegalArgumentException(states + ": states < 1");
+
+		this.states = states;
+		base = mix(seed);
+	}
+
+	public long key(int linear, int state) {
+		if (state == 0)
+			return 0;
+
+		return mix(base + ((long) linear * states + state) * GOLDEN_GAMMA);
+	}
+
+	/*
+	 * Difference to XOR into a hash when a cell goes from one state to
+	 * another.
+	 */
+	public long delta(int linear, int from, int to) {
+		return key(linear, from) ^ key(linear, to);
+	}
+
+	public int states() {
+		return states;
+	}
+
+	private static long mix(long z) {
+		z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+
+		return z ^ z >>> 31;
+	}
+}
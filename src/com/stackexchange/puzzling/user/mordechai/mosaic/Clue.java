@@ -1,28 +1,37 @@
 package com.stackexchange.puzzling.user.mordechai.mosaic;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public class Clue {
 
 	private Fill fill = Fill.EMPTY;
-	private int clue = -1;
+	// a byte, so that the owner below still fits into the object size of an
+	// int clue; mosaics hold one clue per cell and solvers copy them often
+	private byte clue = -1;
 	private boolean isPixel;
 
+	// mosaic whose hashes cover this clue, told about every change; copies
+	// start without one
+	Mosaic owner;
+
 	public Clue(Fill fill, int clue, boolean isPixel) {
-		setFill(fill);
-		setClue(clue);
-		setIsPixel(isPixel);
+		this.fill = fill;
+		this.clue = (byte) clue;
+		this.isPixel = isPixel;
 	}
 
 	public Clue(boolean isPixel) {
-		setIsPixel(isPixel);
+		this.isPixel = isPixel;
 	}
 
 	public Clue(Clue other) {
 		if(other == null)
 			return;
 
-		setFill(other.fill);
-		setClue(other.clue);
-		setIsPixel(other.isPixel);
+		fill = other.fill;
+		clue = other.clue;
+		isPixel = other.isPixel;
 	}
 
 	public Clue() {
@@ -52,14 +61,22 @@ public class Clue {
 
 	public void setFill(Fill fill) {
 		this.fill = fill;
+		changed();
 	}
 
 	public void setClue(int clue) {
-		this.clue = clue;
+		this.clue = (byte) clue;
+		changed();
 	}
 
 	public void setIsPixel(boolean b) {
 		isPixel = b;
+		changed();
+	}
+
+	private void changed() {
+		if (owner != null)
+			owner.clueChanged();
 	}
 
 	@Override
@@ -69,24 +86,50 @@ public class Clue {
 
 	public String toString(boolean fill, boolean clue, boolean pixel) {
 
-		StringBuilder builder = new StringBuilder();
-		if (clue && getClue() >= 0)
-			builder.append(getClue());
-		if (fill)
-			builder.append(getFill());
-		if (pixel && isPixel())
-			builder.append("*");
+		StringBuilder builder = new StringBuilder(3);
+		try {
+			appendTo(builder, fill, clue, pixel);
+		} catch (IOException e) { // not thrown by a StringBuilder
+			throw new UncheckedIOException(e);
+		}
 
 		return builder.toString();
 	}
 
-	public static Clue fromString(String str) {
+	public void appendTo(Appendable out, boolean fill, boolean clue, boolean pixel) throws IOException {
+		if (clue && getClue() >= 0) {
+			if (getClue() < 10)
+				out.append((char) ('0' + getClue()));
+			else
+				out.append(String.valueOf(getClue()));
+		}
+		if (fill)
+			out.append(getFill().toChar());
+		if (pixel && isPixel())
+			out.append('*');
+	}
+
+	public static Clue fromString(CharSequence str) {
 		Clue clue = new Clue();
 
-		clue.setIsPixel(str.contains("*"));
-		if (str.contains("#"))
+		boolean pixel = false;
+		boolean filled = false;
+		boolean x = false;
+
+		for (int i = 0; i < str.length(); i++) {
+			char ch = str.charAt(i);
+			if (ch == '*')
+				pixel = true;
+			else if (ch == '#')
+				filled = true;
+			else if (ch == 'X')
+				x = true;
+		}
+
+		clue.setIsPixel(pixel);
+		if (filled)
 			clue.setFill(Fill.FILLED);
-		else if (str.contains("X"))
+		else if (x)
 			clue.setFill(Fill.X);
 
 		if (str.length() > 0) {
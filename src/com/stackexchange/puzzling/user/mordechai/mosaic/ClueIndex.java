@@ -0,0 +1,168 @@
+package com.stackexchange.puzzling.user.mordechai.mosaic;
+
+import java.util.Arrays;
+
+import com.stackexchange.puzzling.user.mordechai.grid.BitGrid;
+
+/*
+ * Snapshot of the clues of a mosaic, as sorted linear indices with the clue
+ * values alongside. After clue reduction most cells carry no clue, so
+ * walking this is O(#clues) rather than O(#cells). Later changes to the
+ * mosaic are not reflected.
+ */
+public class ClueIndex {
+
+	private int width;
+	private int height;
+
+	private int[] indices;
+	private byte[] values;
+
+	private ClueIndex(int width, int height, int[] indices, byte[] values) {
+		this.width = width;
+		this.height = height;
+		this.indices = indices;
+		this.values = values;
+	}
+
+	public static ClueIndex of(Mosaic mosaic) {
+		int[] indices = new int[16];
+		byte[] values = new byte[16];
+		int size = 0;
+
+		for (int i = 0; i < mosaic.length(); i++) {
+			int clue = mosaic.get(i).getClue();
+			if (clue < 0)
+				continue;
+
+			if (size == indices.length) {
+				indices = Arrays.copyOf(indices, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+
+			indices[size] = i;
+			values[size] = (byte) clue;
+			size++;
+		}
+
+		return new ClueIndex(mosaic.width(), mosaic.height(), Arrays.copyOf(indices, size),
+				Arrays.copyOf(values, size));
+	}
+
+	public int size() {
+		return indices.length;
+	}
+
+	public boolean isEmpty() {
+		return indices.length == 0;
+	}
+
+	/*
+	 * Accessors by position in the index, 0 <= i < size().
+	 */
+
+	public int linear(int i) {
+		return indices[i];
+	}
+
+	public int x(int i) {
+		return indices[i] % width;
+	}
+
+	public int y(int i) {
+		return indices[i] / width;
+	}
+
+	public int clue(int i) {
+		return values[i];
+	}
+
+	/*
+	 * Position of the clue at the given cell, or a negative value if there is
+	 * none, as by Arrays.binarySearch.
+	 */
+	public int find(int x, int y) {
+		return Arrays.binarySearch(indices, y * width + x);
+	}
+
+	public int clueAt(int x, int y) {
+		int i = find(x, y);
+
+		return i < 0 ? -1 : values[i];
+	}
+
+	/*
+	 * Positions of the clues in the 3x3 block around (x, y) go into result,
+	 * returns how many there are; result needs room for 9.
+	 */
+	public int cluesAround(int x, int y, int[] result) {
+		int x0 = Math.max(0, x - 1), x1 = Math.min(width - 1, x + 1);
+
+		int count = 0;
+		for (int j = Math.max(0, y - 1); j <= Math.min(height - 1, y + 1); j++) {
+			int from = lowerBound(j * width + x0);
+			int to = lowerBound(j * width + x1 + 1);
+
+			for (int i = from; i < to; i++) {
+				result[count++] = i;
+			}
+		}
+
+		return count;
+	}
+
+	public boolean hasClueAround(int x, int y) {
+		int x0 = Math.max(0, x - 1), x1 = Math.min(width - 1, x + 1);
+
+		for (int j = Math.max(0, y - 1); j <= Math.min(height - 1, y + 1); j++) {
+			if (lowerBound(j * width + x0) < lowerBound(j * width + x1 + 1))
+				return true;
+		}
+
+		return false;
+	}
+
+	private int lowerBound(int linear) {
+		int i = Arrays.binarySearch(indices, linear);
+
+		return i < 0 ? -i - 1 : i;
+	}
+
+	/*
+	 * Cells that have at least one clue in their 3x3 block.
+	 */
+	public BitGrid coverage() {
+		BitGrid covered = new BitGrid(width, height);
+
+		for (int i = 0; i < indices.length; i++) {
+			int x = x(i), y = y(i);
+
+			for (int j = Math.max(0, y - 1); j <= Math.min(height - 1, y + 1); j++) {
+				for (int k = Math.max(0, x - 1); k <= Math.min(width - 1, x + 1); k++) {
+					covered.set(k, j, true);
+				}
+			}
+		}
+
+		return covered;
+	}
+
+	/*
+	 * First cell in row-major order without a clue around it, or -1 if every
+	 * cell is covered.
+	 */
+	public int firstUncovered() {
+		BitGrid uncovered = coverage();
+		uncovered.not();
+
+		for (int y = 0; y < height; y++) {
+			for (int w = 0; w < uncovered.words(); w++) {
+				long word = uncovered.word(y, w);
+				if (word != 0)
+					return y * width + (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+		}
+
+		return -1;
+	}
+}
@@ -10,6 +10,10 @@ public enum Fill {
 		this.string = str;
 	}
 	
+	public char toChar() {
+		return string.charAt(0);
+	}
+
 	@Override
 	public String toString() {
 		return string;
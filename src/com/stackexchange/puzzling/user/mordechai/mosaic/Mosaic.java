@@ -5,23 +5,40 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.function.Predicate;
 
 import javax.imageio.ImageIO;
 
+import com.stackexchange.puzzling.user.mordechai.grid.BitGrid;
+import com.stackexchange.puzzling.user.mordechai.grid.ByteGrid;
 import com.stackexchange.puzzling.user.mordechai.grid.Grid;
 import com.stackexchange.puzzling.user.mordechai.grid.GridIterator;
+import com.stackexchange.puzzling.user.mordechai.grid.GridJournal;
+import com.stackexchange.puzzling.user.mordechai.grid.GridParser;
+import com.stackexchange.puzzling.user.mordechai.grid.SummedAreaTable;
+import com.stackexchange.puzzling.user.mordechai.grid.Zobrist;
 import com.stackexchange.puzzling.user.mordechai.mosaic.solvers.IllegalClueStateException;
 import com.stackexchange.puzzling.user.mordechai.mosaic.solvers.RecursionSolver;
 
@@ -81,61 +98,172 @@ public class Mosaic implements Iterable<Clue> {
 	}
 
 	public static Mosaic fromClues(String str) {
-		Mosaic mosaic = new Mosaic(Grid.fromString(str, "", (x, y, token) -> Clue.fromString(token)));
+		try {
+			return readClues(CharBuffer.wrap(str));
+		} catch (IOException e) { // not thrown by a CharBuffer
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static Mosaic readClues(Readable in) throws IOException {
+		Mosaic mosaic = new Mosaic(GridParser.parseCharacters(in, (x, y, token) -> Clue.fromString(token)));
 		mosaic.grid().fill((x, y, old) -> old == null ? new Clue() : old);
 
 		return mosaic;
 	}
 
 	public static Mosaic loadClues(InputStream in) throws IOException {
-		Scanner scn = new Scanner(in);
-		String content = scn.useDelimiter("\\Z").next();
-		scn.close();
-
-		return fromClues(content);
+		try (Reader reader = new InputStreamReader(in)) {
+			return readClues(reader);
+		}
 	}
 
 	public static Mosaic loadClues(File file) throws IOException {
-		Scanner scn = new Scanner(file);
-		String content = scn.useDelimiter("\\Z").next();
-		scn.close();
-
-		return fromClues(content);
+		try (Reader reader = new FileReader(file)) {
+			return readClues(reader);
+		}
 	}
 
 	public String toClues() {
-		return grid.toGridString(clue -> clue.getClue() >= 0 ? String.valueOf(clue.getClue()) : " ", "");
+		StringBuilder builder = new StringBuilder(length() + height());
+		try {
+			writeClues(builder);
+		} catch (IOException e) { // not thrown by a StringBuilder
+			throw new UncheckedIOException(e);
+		}
+
+		return builder.toString();
+	}
+
+	public void writeClues(Appendable out) throws IOException {
+		grid.writeTo(out, (clue, o) -> {
+			if (clue.getClue() >= 0)
+				clue.appendTo(o, false, true, false);
+			else
+				o.append(' ');
+		}, "");
 	}
 
 	public static Mosaic fromCSV(String str) {
-		Mosaic mosaic = new Mosaic(Grid.fromString(str, (x, y, token) -> Clue.fromString(token)));
+		try {
+			return readCSV(CharBuffer.wrap(str));
+		} catch (IOException e) { // not thrown by a CharBuffer
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static Mosaic readCSV(Readable in) throws IOException {
+		Mosaic mosaic = new Mosaic(GridParser.parseCSV(in, (x, y, token) -> Clue.fromString(token)));
 		mosaic.grid().fill((x, y, old) -> old == null ? new Clue() : old);
 
 		return mosaic;
 	}
 
 	public static Mosaic loadCSV(InputStream in) throws IOException {
-		Scanner scn = new Scanner(in);
-		String content = scn.useDelimiter("\\Z").next();
-		scn.close();
-
-		return fromCSV(content);
+		try (Reader reader = new InputStreamReader(in)) {
+			return readCSV(reader);
+		}
 	}
 
 	public static Mosaic loadCSV(File file) throws IOException {
-		Scanner scn = new Scanner(file);
-		String content = scn.useDelimiter("\\Z").next();
-		scn.close();
+		try (Reader reader = new FileReader(file)) {
+			return readCSV(reader);
+		}
+	}
+
+	/*
+	 * Compact form, one byte per cell as laid out by PackedClue. The file
+	 * format is the width and height as two ints, followed by the cells
+	 * row by row, and is memory mapped rather than read.
+	 */
 
-		return fromCSV(content);
+	private static final int PACKED_HEADER = 8;
+
+	public static Mosaic unpack(ByteGrid packed) {
+		Mosaic mosaic = new Mosaic(new Grid<>(packed.width(), packed.height()));
+		mosaic.grid.fill((x, y, old) -> {
+			byte cell = packed.get(x, y);
+			if (!PackedClue.isValid(cell))
+				throw new IllegalArgumentException(
+						String.format("Invalid packed clue 0x%02x at %d, %d", cell & 0xFF, x, y));
+
+			return PackedClue.unpack(cell);
+		});
+
+		return mosaic;
+	}
+
+	public void pack(ByteGrid packed) {
+		grid.forEach((clue, x, y) -> packed.set(x, y, PackedClue.pack(clue)));
+	}
+
+	public ByteGrid packedLayer() {
+		ByteGrid packed = ByteGrid.direct(width(), height());
+		pack(packed);
+
+		return packed;
+	}
+
+	public static Mosaic loadPacked(Path file) throws IOException {
+		int width, height;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(PACKED_HEADER);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0)
+					throw new EOFException("Truncated header: " + file);
+			}
+
+			header.flip();
+			width = header.getInt();
+			height = header.getInt();
+
+			if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE)
+				throw new IOException("Invalid size " + width + "x" + height + ": " + file);
+			if (channel.size() < PACKED_HEADER + (long) width * height)
+				throw new EOFException("Truncated cells: " + file);
+		}
+
+		try {
+			return unpack(ByteGrid.mapReadOnly(file, PACKED_HEADER, width, height));
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage() + ": " + file, e);
+		}
+	}
+
+	public void savePacked(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(PACKED_HEADER).putInt(width()).putInt(height()).flip();
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+		}
+
+		ByteGrid packed = ByteGrid.map(file, PACKED_HEADER, width(), height());
+		pack(packed);
+		packed.flush();
 	}
 
 	public String toCSV() {
-		return grid.toString();
+		return toCSV(true, true, true);
 	}
 
 	public String toCSV(boolean fill, boolean clue, boolean pixel) {
-		return grid.toGridString(c -> c == null ? "" : c.toString(fill, clue, pixel), ",");
+		StringBuilder builder = new StringBuilder(length() * 4);
+		try {
+			writeCSV(builder, fill, clue, pixel);
+		} catch (IOException e) { // not thrown by a StringBuilder
+			throw new UncheckedIOException(e);
+		}
+
+		return builder.toString();
+	}
+
+	public void writeCSV(Appendable out, boolean fill, boolean clue, boolean pixel) throws IOException {
+		grid.writeTo(out, (c, o) -> {
+			if (c != null)
+				c.appendTo(o, fill, clue, pixel);
+		}, ",");
 	}
 
 	@Override
@@ -144,7 +272,16 @@ public class Mosaic implements Iterable<Clue> {
 	}
 
 	public Mosaic(Mosaic other) {
-		grid = other.grid().branch(Clue::copy);
+		if (!other.isHashCurrent()) {
+			grid = other.grid().branch(Clue::copy);
+			return;
+		}
+
+		grid = other.grid().branch(clue -> adopt(clue.copy()));
+		clueHash = other.clueHash;
+		fillHash = other.fillHash;
+		pixelHash = other.pixelHash;
+		stamp();
 	}
 
 	public Mosaic(int width, int height) {
@@ -184,6 +321,202 @@ public class Mosaic implements Iterable<Clue> {
 		return grid.get(x, y);
 	}
 
+	/*
+	 * Clues are changed in place, which the grid can't see, so fill changes
+	 * made here are reported to its journal, if one is running.
+	 */
+	public void setFill(int linear, Fill fill) {
+		Clue clue = grid.get(linear);
+		if (clue.getFill() == fill)
+			return;
+
+		boolean current = isHashCurrent();
+		if (current)
+			fillHash ^= FILL_KEYS.delta(linear, fillState(clue.getFill()), fillState(fill));
+
+		clue.setFill(fill);
+
+		if (current)
+			stamp();
+
+		GridJournal journal = grid.getJournal();
+		if (journal != null)
+			journal.mark(linear);
+	}
+
+	public void setClue(int linear, int value) {
+		Clue clue = grid.get(linear);
+		if (clue.getClue() == value)
+			return;
+
+		boolean current = isHashCurrent();
+		if (current)
+			clueHash ^= CLUE_KEYS.delta(linear, clue.getClue() + 1, value + 1);
+
+		clue.setClue(value);
+
+		if (current)
+			stamp();
+	}
+
+	public void setPixel(int linear, boolean isPixel) {
+		Clue clue = grid.get(linear);
+		if (clue.isPixel() == isPixel)
+			return;
+
+		boolean current = isHashCurrent();
+		if (current)
+			pixelHash ^= PIXEL_KEYS.key(linear, 1);
+
+		clue.setIsPixel(isPixel);
+
+		if (current)
+			stamp();
+	}
+
+	/*
+	 * Zobrist hashes of the clue layout, the fills and the pixels. Computed
+	 * on demand, then kept up to date by the setters above in O(1). Changes
+	 * that bypass them make the next read recompute the hashes: computing
+	 * them makes this mosaic the owner of its clues, which then report edits
+	 * made on them directly, and the grid's modification count catches
+	 * clues being replaced. A clue has one owner at a time; a mosaic sharing
+	 * it with another one rehashes after the other one did. Like the rest of
+	 * Mosaic, this is not thread safe.
+	 */
+
+	private static final Zobrist CLUE_KEYS = new Zobrist(11, 1);
+	private static final Zobrist FILL_KEYS = new Zobrist(3, 2);
+	private static final Zobrist PIXEL_KEYS = new Zobrist(2, 3);
+
+	private boolean hashed;
+	private long gridStamp;
+	private long clueHash;
+	private long fillHash;
+	private long pixelHash;
+
+	public long clueHash() {
+		if (!isHashCurrent())
+			rehash();
+
+		return clueHash;
+	}
+
+	public long fillHash() {
+		if (!isHashCurrent())
+			rehash();
+
+		return fillHash;
+	}
+
+	public long pixelHash() {
+		if (!isHashCurrent())
+			rehash();
+
+		return pixelHash;
+	}
+
+	/*
+	 * All three layers and the shape combined into one key.
+	 */
+	public long hash() {
+		return combine(width(), height(), clueHash(), fillHash(), pixelHash());
+	}
+
+	private static long combine(int width, int height, long clueHash, long fillHash, long pixelHash) {
+		long hash = (long) width << 32 | height;
+		hash = hash * 0x9E3779B97F4A7C15L ^ clueHash;
+		hash = hash * 0x9E3779B97F4A7C15L ^ fillHash;
+		hash = hash * 0x9E3779B97F4A7C15L ^ pixelHash;
+
+		return hash;
+	}
+
+	/*
+	 * Smallest hash() over the 8 rotations and reflections, so that it is the
+	 * same for all of them; for deduplicating puzzles up to symmetry. The
+	 * images are views, nothing is copied, and the clues keep their owner.
+	 */
+	public long canonicalHash() {
+		long min = Long.MAX_VALUE;
+		for (Grid<Clue> image : grid.symmetries()) {
+			long clueHash = 0, fillHash = 0, pixelHash = 0;
+
+			for (int i = 0; i < image.length(); i++) {
+				Clue clue = image.get(i);
+				clueHash ^= CLUE_KEYS.key(i, clue.getClue() + 1);
+				fillHash ^= FILL_KEYS.key(i, fillState(clue.getFill()));
+				pixelHash ^= PIXEL_KEYS.key(i, clue.isPixel() ? 1 : 0);
+			}
+
+			min = Math.min(min, combine(image.width(), image.height(), clueHash, fillHash, pixelHash));
+		}
+
+		return min;
+	}
+
+	public void rehash() {
+		clueHash = fillHash = pixelHash = 0;
+
+		for (int i = 0; i < length(); i++) {
+			Clue clue = adopt(grid.get(i));
+			clueHash ^= CLUE_KEYS.key(i, clue.getClue() + 1);
+			fillHash ^= FILL_KEYS.key(i, fillState(clue.getFill()));
+			pixelHash ^= PIXEL_KEYS.key(i, clue.isPixel() ? 1 : 0);
+		}
+
+		stamp();
+	}
+
+	private Clue adopt(Clue clue) {
+		if (clue.owner != this) {
+			if (clue.owner != null)
+				clue.owner.hashed = false;
+			clue.owner = this;
+		}
+
+		return clue;
+	}
+
+	/*
+	 * Called by owned clues on every change.
+	 */
+	void clueChanged() {
+		hashed = false;
+	}
+
+	private boolean isHashCurrent() {
+		return hashed && gridStamp == grid.modifications();
+	}
+
+	private void stamp() {
+		hashed = true;
+		gridStamp = grid.modifications();
+	}
+
+	private static int fillState(Fill fill) {
+		switch (fill) {
+		case FILLED:
+			return 1;
+		case X:
+			return 2;
+		default:
+			return 0;
+		}
+	}
+
+	public GridJournal startJournal() {
+		return grid.startJournal();
+	}
+
+	public GridJournal getJournal() {
+		return grid.getJournal();
+	}
+
+	public void stopJournal() {
+		grid.stopJournal();
+	}
+
 	@Override
 	public GridIterator<Clue> iterator() {
 		return grid.iterator();
@@ -197,21 +530,91 @@ public class Mosaic implements Iterable<Clue> {
 		return grid.count(tester);
 	}
 
-	public void fillClues() {
-		grid.forEach((cell, x, y) -> putClue(x, y));
+	/*
+	 * Runs in parallel on large mosaics, so tester must not have side effects.
+	 */
+	public int parallelCount(Predicate<Clue> tester) {
+		return grid.parallelCount(tester);
 	}
 
-	public void putClue(int x, int y) {
-		Grid<Clue> sub = grid.getSurroundingCells(x, y);
+	/*
+	 * Primitive snapshots of the individual clue attributes.
+	 */
+
+	public ByteGrid clueLayer() {
+		return ByteGrid.of(grid, Clue::getClue);
+	}
+
+	public ByteGrid fillLayer() {
+		return ByteGrid.of(grid, clue -> clue.getFill().ordinal());
+	}
+
+	public BitGrid pixelLayer() {
+		return BitGrid.of(grid, Clue::isPixel);
+	}
+
+	public BitGrid filledLayer() {
+		return BitGrid.of(grid, clue -> clue.getFill() == Fill.FILLED);
+	}
+
+	public void setPixels(BitGrid pixels) {
+		for (int i = 0; i < length(); i++) {
+			setPixel(i, pixels.get(i));
+		}
+	}
+
+	/*
+	 * True if no cell is left empty and every clue matches the filled cells
+	 * around it.
+	 */
+	public boolean isSolved() {
+		return isSolved(clueIndex());
+	}
 
-		Clue clue = grid.get(x, y);
-		int count = sub.count(c -> c.isPixel());
-		clue.setClue(count);
+	/*
+	 * As above, against clues indexed earlier; handy when checking many fills
+	 * of the same puzzle.
+	 */
+	public boolean isSolved(ClueIndex clues) {
+		if (count(clue -> clue.getFill() == Fill.EMPTY) > 0)
+			return false;
+
+		ByteGrid sums = filledLayer().sumSurrounding();
+		for (int i = 0; i < clues.size(); i++) {
+			if (clues.clue(i) != sums.get(clues.linear(i)))
+				return false;
+		}
 
+		return true;
+	}
+
+	public ClueIndex clueIndex() {
+		return ClueIndex.of(this);
+	}
+
+	/*
+	 * The pixels are read once into a summed-area table, so each count is
+	 * four lookups instead of a neighborhood scan. The counts are gathered in
+	 * parallel, but written back on the calling thread, as the clues may be
+	 * bound to the UI.
+	 */
+	public void fillClues() {
+		SummedAreaTable pixels = SummedAreaTable.of(grid, Clue::isPixel);
+
+		int[] counts = new int[grid.length()];
+		grid.parallelForEach((clue, x, y) -> counts[y * grid.width() + x] = pixels.sumSurrounding(x, y));
+
+		for (int i = 0; i < counts.length; i++) {
+			setClue(i, counts[i]);
+		}
+	}
+
+	public void putClue(int x, int y) {
+		setClue(grid.toLinear(x, y), grid.countSurrounding(x, y, Clue::isPixel));
 	}
 
 	public void removeClue(int x, int y) {
-		grid().get(x, y).setClue(-1);
+		setClue(grid.toLinear(x, y), -1);
 	}
 
 	private void putMinimumClues(float level, boolean refillClues) {
@@ -220,6 +623,15 @@ public class Mosaic implements Iterable<Clue> {
 	}
 
 	public Iterator<Integer> clueGenerator(float level, boolean refillClues) {
+		return clueGenerator(level, refillClues, new Random(), false);
+	}
+
+	/*
+	 * Clues are tried for removal in an order drawn from random, so a seeded
+	 * one gives the same puzzle every time. Unless quiet, every step is
+	 * logged to System.out.
+	 */
+	public Iterator<Integer> clueGenerator(float level, boolean refillClues, Random random, boolean quiet) {
 		return new Iterator<Integer>() {
 
 			float localLevel;
@@ -241,7 +653,7 @@ public class Mosaic implements Iterable<Clue> {
 						cells.add(i);
 				}
 
-				Collections.shuffle(cells);
+				Collections.shuffle(cells, random);
 
 				float size = cells.size();
 				cluesWithBasic = (int) (size * localLevel);
@@ -255,6 +667,14 @@ public class Mosaic implements Iterable<Clue> {
 			@Override
 			public Integer next() {
 				IllegalClueStateException e = tryRemove(cells.get(i), i > cluesWithBasic);
+				if (!quiet)
+					log(e);
+				i++;
+
+				return cells.get(i - 1);
+			}
+
+			private void log(IllegalClueStateException e) {
 				String type = i <= cluesWithBasic ? "BASIC" : "ADVANCED";
 				if (e == null)
 					System.out.print(type + " " + new Date() + ": " + (i + 1) + "/" + cells.size() + " COMMIT");
@@ -264,9 +684,6 @@ public class Mosaic implements Iterable<Clue> {
 
 				}
 				System.out.println(" - x,y: " + cells.get(i) % grid.width() + "," + cells.get(i) / grid.width());
-				i++;
-
-				return cells.get(i - 1);
 			}
 
 		};
@@ -277,21 +694,23 @@ public class Mosaic implements Iterable<Clue> {
 	}
 
 	private IllegalClueStateException tryRemove(int i, boolean advancedLogic) {
-		Clue clue = grid.get(i);
-		int oldVal = clue.getClue();
-		clue.setClue(-1);
+		int oldVal = grid.get(i).getClue();
+		setClue(i, -1);
 
 		try {
 			RecursionSolver solver = new RecursionSolver(this);
 			solver.useAdvancedLogic(advancedLogic);
+			solver.useSingleBoard(true);
 			solver.checkAmbiguity(true);
 			solver.start();
 			return null;
 		} catch (IllegalClueStateException e) {
-			clue.setClue(oldVal);
+			setClue(i, oldVal);
 			return e;
 		} finally {
-			grid.forEach(cl -> cl.setFill(Fill.EMPTY));
+			for (int j = 0; j < length(); j++) {
+				setFill(j, Fill.EMPTY);
+			}
 		}
 	}
 
@@ -0,0 +1,81 @@
+package com.stackexchange.puzzling.user.mordechai.mosaic;
+
+/*
+ * One byte encoding of a Clue, for compact and off-heap storage:
+ * 
+ * bits 0-3: clue + 1, so 0 means no clue
+ * bits 4-5: fill ordinal
+ * bit 6: pixel
+ * 
+ * Any other byte, i.e. a clue field above 10, fill bits 3 or bit 7 set, is
+ * invalid and rejected by the decoders.
+ */
+public final class PackedClue {
+
+	private static final int CLUE_MASK = 0x0F;
+	private static final int FILL_SHIFT = 4;
+	private static final int FILL_MASK = 0x03;
+	private static final int PIXEL_BIT = 0x40;
+	private static final int UNUSED_BIT = 0x80;
+
+	private static final Fill[] FILLS = Fill.values();
+
+	private PackedClue() {
+	}
+
+	public static byte pack(Fill fill, int clue, boolean isPixel) {
+		if (clue < -1 || clue > 9)
+			throw new IllegalArgumentException("clue: " + clue);
+
+		return (byte) (clue + 1 | fill.ordinal() << FILL_SHIFT | (isPixel ? PIXEL_BIT : 0));
+	}
+
+	public static byte pack(Clue clue) {
+		return pack(clue.getFill(), clue.getClue(), clue.isPixel());
+	}
+
+	public static boolean isValid(byte packed) {
+		return (packed & CLUE_MASK) <= 10 && (packed >> FILL_SHIFT & FILL_MASK) < FILLS.length
+				&& (packed & UNUSED_BIT) == 0;
+	}
+
+	public static int clue(byte packed) {
+		int clue = (packed & CLUE_MASK) - 1;
+		if (clue > 9)
+			throw new IllegalArgumentException(invalid(packed));
+
+		return clue;
+	}
+
+	public static Fill fill(byte packed) {
+		int ordinal = packed >> FILL_SHIFT & FILL_MASK;
+		if (ordinal >= FILLS.length)
+			throw new IllegalArgumentException(invalid(packed));
+
+		return FILLS[ordinal];
+	}
+
+	public static boolean isPixel(byte packed) {
+		return (packed & PIXEL_BIT) != 0;
+	}
+
+	public static void unpack(byte packed, Clue clue) {
+		if (!isValid(packed))
+			throw new IllegalArgumentException(invalid(packed));
+
+		clue.setClue(clue(packed));
+		clue.setFill(fill(packed));
+		clue.setIsPixel(isPixel(packed));
+	}
+
+	public static Clue unpack(byte packed) {
+		if (!isValid(packed))
+			throw new IllegalArgumentException(invalid(packed));
+
+		return new Clue(fill(packed), clue(packed), isPixel(packed));
+	}
+
+	private static String invalid(byte packed) {
+		return String.format("Invalid packed clue: 0x%02x", packed & 0xFF);
+	}
+}
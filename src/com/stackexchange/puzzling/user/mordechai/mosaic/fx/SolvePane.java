@@ -4,6 +4,7 @@ import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardS
 import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardState.RUNNING;
 import java.util.function.Consumer;
 
+import com.stackexchange.puzzling.user.mordechai.grid.GridJournal;
 import com.stackexchange.puzzling.user.mordechai.mosaic.Clue;
 import com.stackexchange.puzzling.user.mordechai.mosaic.Fill;
 import com.stackexchange.puzzling.user.mordechai.mosaic.Mosaic;
@@ -239,10 +240,13 @@ public class SolvePane extends VBox {
 			Platform.runLater(() -> completing.set(true));
 			try {
 				Mosaic copy = new Mosaic(global.getMosaicPane().getMosaic().grid().branch(Clue::new));
+				GridJournal journal = clearOnStart.isSelected() ? null : copy.startJournal();
 
 				RecursionSolver s = new RecursionSolver(copy);
 				s.checkAmbiguity(checkAmbiguity.isSelected());
 				s.useLoopbackEnhancement(loopbackEnhacement.isSelected());
+				// nothing to step through here, no need for a mosaic per branch
+				s.useSingleBoard(true);
 
 				s.onStateChange(solver -> {
 					MosaicPane pane = global.getMosaicPane();
@@ -250,8 +254,14 @@ public class SolvePane extends VBox {
 					if (s.isTerminated()) {
 						Platform.runLater(() -> {
 							completing.set(false);
-							pane.getMosaic().grid()
-									.forEach((clue, x, y) -> clue.setFill(s.getMosaic().get(x, y).getFill()));
+
+							// only cells the solver touched differ from the pane
+							if (journal != null) {
+								journal.drain(i -> pane.getMosaic().get(i).setFill(copy.get(i).getFill()));
+							} else {
+								pane.getMosaic().grid()
+										.forEach((clue, x, y) -> clue.setFill(s.getMosaic().get(x, y).getFill()));
+							}
 						});
 					} else if (s.getState() == PAUSED) {
 						Platform.runLater(() -> {
@@ -4,13 +4,14 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -244,9 +245,9 @@ public class Loader { // FIXME use threads for loading and set off-canvas-proces
 
 		Util.createDialog(vbox, "Export Attributes...", ButtonType.OK, ButtonType.CANCEL)
 				.filter(bt -> bt == ButtonType.OK).ifPresent(bt -> {
-					try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
-						out.print(global.getMosaicPane().getMosaic().toCSV(fill.isSelected(), clue.isSelected(),
-								image.isSelected()));
+					try (Writer out = new BufferedWriter(new FileWriter(file))) {
+						global.getMosaicPane().getMosaic().writeCSV(out, fill.isSelected(), clue.isSelected(),
+								image.isSelected());
 					} catch (IOException e) {
 						Alert alert = new Alert(AlertType.ERROR);
 						alert.setHeaderText("Cannot save to file  " + file.getName());
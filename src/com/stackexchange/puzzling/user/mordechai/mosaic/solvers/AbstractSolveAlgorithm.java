@@ -7,14 +7,14 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-import com.stackexchange.puzzling.user.mordechai.grid.GridIterator;
-import com.stackexchange.puzzling.user.mordechai.mosaic.Clue;
+import com.stackexchange.puzzling.user.mordechai.mosaic.ClueIndex;
 import com.stackexchange.puzzling.user.mordechai.mosaic.Mosaic;
 import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardState.*;
 
 public abstract class AbstractSolveAlgorithm implements SolveAlgorithm {
 
 	private Mosaic mosaic;
+	private ClueIndex clueIndex;
 	private AtomicReference<State> state;
 
 	private Map<State, List<Consumer<SolveAlgorithm>>> singleStateListeners;
@@ -36,22 +36,38 @@ public abstract class AbstractSolveAlgorithm implements SolveAlgorithm {
 		this.mosaic = mosaic;
 
 		if (checkNoClue) {
-			GridIterator<Clue> gi = getMosaic().grid().iterator();
-			while (gi.hasNext()) {
-				gi.next();
-				if (getMosaic().grid().getSurroundingCells(gi.x(), gi.y())
-						.count(clue -> clue.getClue() >= 0) == 0) {
-					setState(FAILED);
-					throw new NoClueException(getMosaic(), gi.x(), gi.y());
-				}
+			int uncovered = getClueIndex().firstUncovered();
+
+			if (uncovered >= 0) {
+				setState(FAILED);
+				throw new NoClueException(getMosaic(), uncovered % mosaic.width(), uncovered / mosaic.width());
 			}
 		}
 	}
 
+	/*
+	 * For algorithms working on a copy of a mosaic whose clues are already
+	 * indexed; the index is shared rather than rebuilt.
+	 */
+	protected AbstractSolveAlgorithm(Mosaic mosaic, ClueIndex clueIndex) {
+		this(mosaic, false);
+		this.clueIndex = clueIndex;
+	}
+
 	public Mosaic getMosaic() {
 		return mosaic;
 	}
 
+	/*
+	 * Clues of the mosaic as they were when first asked for.
+	 */
+	protected ClueIndex getClueIndex() {
+		if (clueIndex == null)
+			clueIndex = mosaic.clueIndex();
+
+		return clueIndex;
+	}
+
 	@Override
 	public State getState() {
 		return state.get();
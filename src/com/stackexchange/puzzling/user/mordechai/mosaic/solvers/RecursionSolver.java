@@ -1,33 +1,83 @@
 package com.stackexchange.puzzling.user.mordechai.mosaic.solvers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.function.Consumer;
 
 import com.stackexchange.puzzling.user.mordechai.grid.Grid;
-import com.stackexchange.puzzling.user.mordechai.grid.GridIterator;
+import com.stackexchange.puzzling.user.mordechai.grid.GridTopology;
 import com.stackexchange.puzzling.user.mordechai.mosaic.Clue;
+import com.stackexchange.puzzling.user.mordechai.mosaic.ClueIndex;
+import com.stackexchange.puzzling.user.mordechai.mosaic.Fill;
 import com.stackexchange.puzzling.user.mordechai.mosaic.Mosaic;
 
 import static com.stackexchange.puzzling.user.mordechai.mosaic.Fill.*;
 import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardState.*;
 
+/*
+ * Clues are referred to by their position in the clue index, which the whole
+ * solver tree shares. A clue is evaluated only when it is queued, and it is
+ * queued only when a cell in its 3x3 block changes, so propagation does work
+ * proportional to the changes rather than to the puzzle. Branching happens
+ * only once the queue runs dry.
+ *
+ * By default every branch is a child solver on its own copy of the mosaic,
+ * which the UI can inspect. In single-board mode the search instead runs on
+ * the one mosaic: every assignment and every clue marked solved goes on a
+ * trail, and backtracking undoes the trail down to the height saved with the
+ * decision. Memory is then O(cells + decisions) rather than a copy of the
+ * mosaic per open branch.
+ */
 public class RecursionSolver extends AbstractSolveAlgorithm {
 
-	private ListIterator<Coordinates> iterator;
-	private List<Coordinates> clues;
-	private List<Coordinates> loopbackClues;
+	private Coordinates[] points;
+	private BitSet solved;
+	private int unsolved;
+
+	// ring buffer of clue positions; each clue is in it at most once
+	private int[] queue;
+	private BitSet queued;
+	private int head;
+	private int size;
+	private int[] around;
+
+	// single-board mode; cells assigned, or ~clue for clues marked solved
+	private int[] trail;
+	private int trailSize;
+	private List<Decision> decisions;
+	private int divergence;
+
+	// child mode; only the child being explored exists
+	private Decision branching;
 	private List<RecursionSolver> children;
 	private List<RecursionSolver> childrenUnmodifiable;
 
+	// first solution found, while checking for another
+	private Mosaic solution;
+
+	// what made this solver fail; only turned into an exception if that ends
+	// the solve
+	private Coordinates contradiction;
+	private Mosaic ambiguity;
+	private Coordinates ambiguityPoint;
+
+	// failed because the whole solve is ending, not on a contradiction of its
+	// own, so there is no point moving on to the next sibling
+	private boolean unwinding;
+
+	// the solvers from this one down to the active leaf, when stepped
+	private List<RecursionSolver> path;
+
 	private Coordinates currentPoint;
 	private Coordinates recursionPoint;
 
 	private boolean useAdvancedLogic;
 	private boolean checkAmbiguity;
 	private boolean loopbackEnhacement = true;
+	private boolean singleBoard;
 	private int level;
 
 	private RecursionSolver parent;
@@ -38,36 +88,59 @@ public class RecursionSolver extends AbstractSolveAlgorithm {
 	private int backtracks;
 
 	public RecursionSolver(Mosaic mosaic) {
-		this(mosaic, null, null, 0);
-	}
+		super(mosaic, true);
 
-	private RecursionSolver(Mosaic mosaic, List<Coordinates> coordinates, RecursionSolver parent, int level) {
-		super(mosaic, coordinates == null);
+		ClueIndex index = getClueIndex();
+		points = new Coordinates[index.size()];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new Coordinates(index.x(i), index.y(i));
+		}
 
+		solved = new BitSet(points.length);
+		unsolved = points.length;
 		useAdvancedLogic = true;
+		init();
 
-		clues = new ArrayList<>();
-		loopbackClues = new ArrayList<>();
-		children = new ArrayList<>();
-
-		if (coordinates != null) {
-			for (Coordinates coords : coordinates) {
-				if (!coords.solved)
-					clues.add(new Coordinates(coords.x, coords.y));
-			}
-		} else {
-			GridIterator<Clue> i = getMosaic().iterator();
-			i.forEachRemaining(clue -> {
-				if (clue.getClue() >= 0)
-					clues.add(new Coordinates(i.x(), i.y()));
-			});
+		for (int i = 0; i < points.length; i++) {
+			offer(i);
 		}
 
+		setState(READY);
+	}
+
+	/*
+	 * Child on a copy of the parent's mosaic; only the clues around the cells
+	 * the branch assigned need a look.
+	 */
+	private RecursionSolver(Mosaic mosaic, RecursionSolver parent, int[] assigned) {
+		super(mosaic, parent.getClueIndex());
+
 		this.parent = parent;
-		this.level = level;
+		level = parent.level + 1;
+
+		points = parent.points;
+		solved = (BitSet) parent.solved.clone();
+		unsolved = parent.unsolved;
+		useAdvancedLogic = parent.useAdvancedLogic;
+		checkAmbiguity = parent.checkAmbiguity;
+		loopbackEnhacement = parent.loopbackEnhacement;
+		init();
+
+		for (int cell : assigned) {
+			offerAround(cell);
+		}
+
 		setState(READY);
 	}
 
+	private void init() {
+		children = new ArrayList<>();
+
+		queue = new int[points.length];
+		queued = new BitSet(points.length);
+		around = new int[9];
+	}
+
 	@Override
 	public void start() {
 		if (getState() != READY)
@@ -100,8 +173,12 @@ public class RecursionSolver extends AbstractSolveAlgorithm {
 	@Override
 	public void cancel() {
 		setState(CANCELLED);
-		clues.clear();
+		clearQueue();
 		children.clear();
+		branching = null;
+
+		if (decisions != null)
+			decisions.clear();
 	}
 
 	private void run() {
@@ -118,259 +195,492 @@ public class RecursionSolver extends AbstractSolveAlgorithm {
 		return recursionHandler;
 	}
 
+	/*
+	 * One step of the solver tree below this solver. The path from here down
+	 * to the active leaf is kept as an explicit stack: the leaf does its step,
+	 * then the outcome is settled upwards in a loop rather than by unwinding
+	 * nested calls, so neither the search depth nor a failure costs stack.
+	 */
 	private void takeStep(boolean pauseOnDone) {
-		setState(RUNNING);
-
-		if (elapsed() == 0)
-			startTimer();
+		if (path == null) {
+			path = new ArrayList<>();
+			path.add(this);
+		}
 
-		if (!isLeaf()) {
-			try {
-				children.get(0).takeStep(pauseOnDone);
-			} catch (AmbigiousException e) {
-				if (getState() == RUNNING) // parents
-					setState(FAILED);
-				// Unwinds recursion
-				throw e;
-			} catch (IllegalClueStateException e) {
-				backtracks++;
+		// all of the path on start and resume, otherwise only nodes that aren't
+		// running yet, normally none or the new leaf
+		int i = path.size();
+		if (getState() != RUNNING) {
+			i = 0;
+		} else {
+			while (path.get(i - 1).getState() != RUNNING) {
+				i--;
+			}
+		}
+		for (; i < path.size(); i++) {
+			path.get(i).enter();
+		}
 
-				// last child
-				if (isSelfActive()) {
+		RecursionSolver leaf = path.get(path.size() - 1);
+		leaf.leafStep();
 
-					// succeed if in validation
-					if (gridComplete()) {
-						setState(SUCCEEDED);
-						return;
-					}
+		RecursionSolver ambiguous = leaf.ambiguity != null ? leaf : settle();
+		if (ambiguous != null) {
+			// Unwinds the whole path
+			for (int j = path.size() - 1; j >= 0; j--) {
+				RecursionSolver node = path.get(j);
+				node.unwinding = true;
 
-					setState(FAILED);
-					throw e; // last child threw, throw parent
-				}
+				if (node.getState() == RUNNING)
+					node.setState(FAILED);
 			}
-		} else {
-			if (gridComplete()) {
-				assert getMosaic().count(clue -> clue.getFill() == EMPTY) == 0;
 
-				setState(SUCCEEDED);
-				return;
+			throw new AmbigiousException(ambiguous.solution, ambiguous.ambiguity, ambiguous.ambiguityPoint.x,
+					ambiguous.ambiguityPoint.y);
+		}
+
+		// last child failed, fail parent
+		if (getState() == FAILED && leaf.getState() == FAILED)
+			throw new ContradictionException(leaf.getMosaic(), leaf.contradiction.x, leaf.contradiction.y);
+
+		if (pauseOnDone) {
+			for (int j = path.size() - 1; j >= 0; j--) {
+				if (path.get(j).getState() == RUNNING)
+					path.get(j).pause();
 			}
+		}
+	}
+
+	private void enter() {
+		setState(RUNNING);
+
+		if (elapsed() == 0)
+			startTimer();
+	}
+
+	/*
+	 * Pops terminated solvers off the path, letting each parent react, then
+	 * pushes whatever child is to be explored next. Returns the parent that
+	 * found a second solution, if any.
+	 */
+	private RecursionSolver settle() {
+		while (path.size() > 1) {
+			RecursionSolver child = path.get(path.size() - 1);
+			if (!child.isTerminated())
+				break;
 
-			if (iterator == null)
-				startIteration();
+			path.remove(path.size() - 1);
 
-			// FIXME swap around so step does both at once
-			if (iterator.hasNext() || !loopbackClues.isEmpty()) {
-				takeStepImpl();
+			if (child.getState() == SUCCEEDED) {
+				child.parent.childSucceeded(child);
+
+				if (child.parent.ambiguity != null)
+					return child.parent;
 			} else {
-				endIteration();
+				child.parent.childFailed();
 			}
 		}
 
-		if (pauseOnDone && isRunnable())
-			pause();
+		RecursionSolver node = path.get(path.size() - 1);
+		while (node.isRunnable() && !node.isLeaf()) {
+			node = node.children.get(0);
+			path.add(node);
+		}
+
+		return null;
 	}
 
-	private boolean changed;
+	private void leafStep() {
+		if (gridComplete()) {
+			assert getMosaic().count(clue -> clue.getFill() == EMPTY) == 0;
 
-	private void takeStepImpl() {
+			if (!isUsingSingleBoard() || !solutionFound())
+				setState(SUCCEEDED);
+		} else if (size > 0) {
+			if (!takeStepImpl() && (!isUsingSingleBoard() || !backtrack()))
+				setState(FAILED);
+		} else {
+			branch();
+		}
+	}
+
+	/*
+	 * Evaluates the next queued clue. A contradiction is a normal outcome of
+	 * the search, so it is reported by returning false, with the clue left in
+	 * contradiction, rather than by throwing.
+	 */
+	private boolean takeStepImpl() {
 		steps++;
 
-		boolean localChanged = false;
-		Coordinates c = null;
+		int i = poll();
+		Coordinates c = points[i];
 
-		while (!loopbackClues.isEmpty()) {
-			Coordinates coords = loopbackClues.remove(0);
-			if (!coords.solved) {
-				c = coords;
-				break;
-			}
+		currentPoint = c;
+		Grid<Clue> grid = getMosaic().grid();
+		GridTopology topology = grid.topology();
+		int index = topology.toLinear(c.x, c.y);
+		int clue = getClueIndex().clue(i);
+
+		int start = topology.start(index);
+		int end = topology.end(index);
+
+		int filledAmt = 0;
+		int xAmt = 0;
+		int emptyAmt = 0;
+		for (int k = start; k < end; k++) {
+			Fill fill = grid.get(topology.neighbor(k)).getFill();
+			if (fill == FILLED)
+				filledAmt++;
+			else if (fill == X)
+				xAmt++;
+			else
+				emptyAmt++;
+		}
+
+		if (filledAmt > clue || end - start - xAmt < clue) {
+			contradiction = c;
+			return false;
+		}
 
+		Fill target = null;
+		if (emptyAmt > 0) {
+			if (emptyAmt + filledAmt == clue)
+				target = FILLED;
+			else if (filledAmt == clue)
+				target = X;
 		}
 
-		if (c == null) {
-			while (iterator.hasNext()) {
-				Coordinates coords = iterator.next();
-				if (!coords.solved) {
-					c = coords;
-					break;
-				}
-				iterator.remove();
+		if (emptyAmt == 0 || target != null)
+			markSolved(i);
+
+		if (target != null) {
+			for (int k = start; k < end; k++) {
+				int neighbor = topology.neighbor(k);
+				if (grid.get(neighbor).getFill() == EMPTY)
+					assign(neighbor, target);
 			}
 		}
 
-		if (c == null)
+		return true;
+	}
+
+	/*
+	 * Queues every unsolved clue whose block contains the given cell. With the
+	 * loopback enhancement they go to the front, so the neighborhood of a
+	 * change is settled before moving on; without it to the back. Both reach
+	 * the same fixed point.
+	 */
+	private void offerAround(int cell) {
+		int width = getMosaic().width();
+		int count = getClueIndex().cluesAround(cell % width, cell / width, around);
+
+		for (int j = 0; j < count; j++) {
+			if (isUsingLoopbackEnhancment())
+				push(around[j]);
+			else
+				offer(around[j]);
+		}
+	}
+
+	private void offer(int clue) {
+		if (solved.get(clue) || queued.get(clue))
 			return;
 
-		currentPoint = c;
-		Grid<Clue> surrounding = getMosaic().getSurroundingCells(c.x, c.y);
+		queue[(head + size++) % queue.length] = clue;
+		queued.set(clue);
+	}
 
-		Clue clue = getMosaic().get(c.x, c.y);
-		if (clue.getClue() < 0) {
-			iterator.remove();
+	private void push(int clue) {
+		if (solved.get(clue) || queued.get(clue))
 			return;
-		}
 
-		int filledAmt = surrounding.count(cl -> cl.getFill() == FILLED);
-		int xAmt = surrounding.count(cl -> cl.getFill() == X);
-		int emptyAmt = surrounding.count(cl -> cl.getFill() == EMPTY);
+		head = (head + queue.length - 1) % queue.length;
+		queue[head] = clue;
+		size++;
+		queued.set(clue);
+	}
 
-		if (filledAmt > clue.getClue()) {
-			setState(FAILED);
-			throw new ContradictionException(getMosaic(), c.x, c.y);
-		}
+	private int poll() {
+		int clue = queue[head];
+		head = (head + 1) % queue.length;
+		size--;
+		queued.clear(clue);
 
-		if (surrounding.length() - xAmt < clue.getClue()) {
-			setState(FAILED);
-			throw new ContradictionException(getMosaic(), c.x, c.y);
+		return clue;
+	}
+
+	private void clearQueue() {
+		queued.clear();
+		head = 0;
+		size = 0;
+	}
+
+	private void markSolved(int clue) {
+		if (!solved.get(clue)) {
+			solved.set(clue);
+			unsolved--;
+
+			if (isUsingSingleBoard())
+				record(~clue);
 		}
+	}
+
+	private void assign(int cell, Fill fill) {
+		getMosaic().setFill(cell, fill);
+		offerAround(cell);
+
+		if (isUsingSingleBoard())
+			record(cell);
+	}
+
+	private void record(int entry) {
+		if (trailSize == trail.length)
+			trail = Arrays.copyOf(trail, trailSize * 2);
+
+		trail[trailSize++] = entry;
+	}
+
+	private void undo(int height) {
+		while (trailSize > height) {
+			int entry = trail[--trailSize];
 
-		if (emptyAmt + filledAmt == clue.getClue()) {
-			for (Clue cl : surrounding) {
-				if (cl.getFill() == EMPTY) {
-					cl.setFill(FILLED);
-					localChanged = true;
-				}
+			if (entry >= 0) {
+				getMosaic().setFill(entry, EMPTY);
+			} else {
+				solved.clear(~entry);
+				unsolved++;
 			}
 		}
+	}
 
-		if (filledAmt == clue.getClue()) {
-			for (Clue cl : surrounding) {
-				if (cl.getFill() == EMPTY) {
-					cl.setFill(X);
-					localChanged = true;
-				}
-			}
+	/*
+	 * Every clue is solved once a child found the solution.
+	 */
+	private void markComplete() {
+		clearQueue();
+		unsolved = 0;
+	}
+
+	/*
+	 * Single-board search: takes the next alternative of the decision, X on
+	 * the cells before it and FILLED on its own cell, as the children of the
+	 * default mode do.
+	 */
+	private void decide(Decision decision) {
+		int i = decision.next++;
+
+		for (int j = 0; j < i; j++) {
+			assign(decision.empties[j], X);
 		}
 
-		c.solved = surrounding.count(cl -> cl.getFill() == EMPTY) == 0;
+		assign(decision.empties[i], FILLED);
+		recursionPoint = decision.point;
+	}
 
-		if (localChanged && isUsingLoopbackEnhancment()) {
-			int previousCount = 0;
-			// loops back 2 or 3 rows, then adds all that are max 2 cells
-			// while reseting
-			// iterator to previous position
-			while (iterator.hasPrevious()) {
-				Coordinates p = iterator.previous();
-				previousCount++;
-				if ((p.y == c.y - 2 && p.x < c.x - 2) || p.y < c.y - 2) {
-					break;
-				}
-			}
-			while (previousCount > 0) {
-				Coordinates n = iterator.next();
-				previousCount--;
-				if (n != c && n.x >= c.x - 2 && n.x <= c.x + 2 && n.y >= c.y - 2 && n.y <= c.y + 2) {
-					loopbackClues.add(n);
-				}
-
-				if (n.x >= c.x && n.y >= c.y)
-					break;
+	/*
+	 * Undoes the trail to the latest decision that has alternatives left and
+	 * takes the next one. Returns false once the search space is exhausted
+	 * without any solution; with one found in the meantime that one is
+	 * restored and the solver succeeds.
+	 */
+	private boolean backtrack() {
+		backtracks++;
+		clearQueue();
+
+		while (!decisions.isEmpty()) {
+			Decision decision = decisions.get(decisions.size() - 1);
+			undo(decision.trail);
+
+			if (decision.next < decision.alternatives) {
+				divergence = Math.min(divergence, decisions.size());
+				decide(decision);
+				return true;
 			}
+
+			// the branch that made this decision failed as a whole, unless it
+			// led to the solution
+			decisions.remove(decisions.size() - 1);
+			if (!decisions.isEmpty() && !decision.succeeded)
+				backtracks++;
+		}
+
+		if (solution == null)
+			return false;
+
+		for (int i = 0; i < getMosaic().length(); i++) {
+			getMosaic().setFill(i, solution.get(i).getFill());
 		}
+		markComplete();
+		setState(SUCCEEDED);
 
-		changed |= localChanged;
+		return true;
 	}
 
-	private void startIteration() {
-		iterator = clues.listIterator();
-		changed = false;
+	/*
+	 * Single-board search found a solution; returns false if that simply
+	 * means success. Otherwise the search either goes on, when checking
+	 * ambiguity with alternatives left, or has failed on a second solution.
+	 */
+	private boolean solutionFound() {
+		recursions = Math.max(recursions, decisions.size());
+
+		if (!isCheckingAmbiguity() || decisions.isEmpty())
+			return false;
+
+		if (solution != null) {
+			ambiguity = new Mosaic(getMosaic());
+			ambiguityPoint = decisions.get(divergence - 1).point;
+
+			// leave the board as the tree search leaves its root, before the
+			// first decision, rather than holding the second solution
+			undo(decisions.get(0).trail);
+			decisions.clear();
+			setState(FAILED);
+			return true;
+		}
+
+		solution = new Mosaic(getMosaic());
+		divergence = decisions.size();
+		decisions.forEach(decision -> decision.succeeded = true);
+
+		// not a failure, the search just goes on
+		backtracks--;
+		return backtrack();
 	}
 
-	private void endIteration() {
-		iterator = null;
-		if ((!changed || isUsingLoopbackEnhancment()) && !gridComplete()) {
+	private void branch() {
+		int bi = solved.nextClearBit(0);
+		Coordinates bc = points[bi];
+		recursionPoint = bc;
 
-			Coordinates bc = null;
+		int currentClue = getClueIndex().clue(bi);
 
-			while (!clues.isEmpty()) {
-				bc = clues.get(0);
-				if (!bc.solved)
-					break;
+		if (!isUsingAdvancedLogic())
+			throw new RequiresAdvancedLogicException(getMosaic(), bc.x, bc.y);
 
-				clues.remove(0);
-			}
+		GridTopology topology = getMosaic().grid().topology();
+		int index = topology.toLinear(bc.x, bc.y);
+		int[] empties = new int[topology.end(index) - topology.start(index)];
+		int emptyAmt = 0;
 
-			if(gridComplete()) { // may happen on above removal
-				return;
-			}
+		int filled = 0;
+		for (int k = topology.start(index); k < topology.end(index); k++) {
+			int neighbor = topology.neighbor(k);
+			Fill fill = getMosaic().get(neighbor).getFill();
 
-			recursionPoint = bc;
+			if (fill == FILLED)
+				filled++;
+			else if (fill == EMPTY)
+				empties[emptyAmt++] = neighbor;
+		}
 
-			int currentClue = getMosaic().get(bc.x, bc.y).getClue();
+		Decision decision = new Decision(trailSize, bc, Arrays.copyOf(empties, emptyAmt),
+				emptyAmt - (currentClue - filled) + 1);
 
-			if (!isUsingAdvancedLogic())
-				throw new RequiresAdvancedLogicException(getMosaic(), bc.x, bc.y);
+		if (isUsingSingleBoard()) {
+			decisions.add(decision);
+			decide(decision);
+		} else {
+			branching = decision;
+			nextChild(null);
+		}
 
-			Grid<Clue> subgrid = getMosaic().getSurroundingCells(bc.x, bc.y);
-			List<Integer> empties = new ArrayList<>();
+		Consumer<RecursionSolver> recursionHandler = getOnRecursion();
+		if (recursionHandler != null) {
+			recursionHandler.accept(this);
+		}
+	}
 
-			int filled = subgrid.count(clue -> clue.getFill() == FILLED);
-			for (int i = 0; i < subgrid.length(); i++) {
-				if (subgrid.get(i).getFill() == EMPTY) {
-					empties.add(i);
-				}
-			}
+	/*
+	 * Creates the child for the next alternative of the current branching,
+	 * once the one before it failed; later siblings don't exist until then.
+	 * Handlers set on the failed sibling carry over, so handlers registered
+	 * through getChildren() cover the whole branching.
+	 */
+	private void nextChild(RecursionSolver previous) {
+		int i = branching.next++;
+		int[] assigned = Arrays.copyOf(branching.empties, i + 1);
 
-			for (int i = 0; i <= empties.size() - (currentClue - filled); i++) {
+		Mosaic m = new Mosaic(getMosaic());
 
-				Mosaic m = new Mosaic(getMosaic());
-				Grid<Clue> sub = m.getSurroundingCells(bc.x, bc.y);
+		// x out all preceding already taken care in preceding children
+		for (int j = 0; j < i; j++) {
+			m.setFill(assigned[j], X);
+		}
+		m.setFill(assigned[i], FILLED);
 
-				// x out all preceding already taken care in preceding children
-				for (int j = 0; j < i; j++) {
-					sub.get(empties.get(j)).setFill(X);
-				}
+		RecursionSolver rs = new RecursionSolver(m, this, assigned);
+		rs.addStateListener(FAILED, algrithm -> {
+			children.remove(rs);
+			steps += rs.steps;
+			backtracks += rs.backtracks;
 
-				if (empties.isEmpty()) // may happen on loop-back
-					return;
+			if (!rs.unwinding && branching.next < branching.alternatives)
+				nextChild(rs);
+		});
 
-				sub.get(empties.get(i)).setFill(FILLED);
+		if (previous != null) {
+			rs.onRecursion(previous.getOnRecursion());
+			rs.onFail(previous.getOnFail());
+		}
 
-				RecursionSolver rs = new RecursionSolver(m, clues, this, level + 1);
-				rs.checkAmbiguity(isCheckingAmbiguity());
-				rs.addStateListener(SUCCEEDED, algorithm -> {
+		children.add(rs);
+	}
 
-					if (inValidationProcess()) {
-						setState(FAILED);
-						throw new AmbigiousException(getMosaic(), rs.getMosaic(), recursionPoint.x, recursionPoint.y);
-					}
+	private void childSucceeded(RecursionSolver rs) {
+		if (solution != null) {
+			unwinding = true;
+			setState(FAILED);
+			ambiguity = rs.getMosaic();
+			ambiguityPoint = recursionPoint;
+			return;
+		}
 
-					for (int x = 0; x < getMosaic().length(); x++) {
-						getMosaic().get(x).setFill(rs.getMosaic().get(x).getFill());
-					}
+		children.remove(rs);
 
-					rs.getMosaic().grid().forEach((data, x, y) -> getMosaic().get(x, y).setFill(data.getFill()));
+		// Report updating
+		recursions = rs.recursions + 1;
+		steps += rs.steps;
+		backtracks += rs.backtracks;
 
-					children.remove(rs);
-					clues.clear(); // mark gridComplete
-					iterator = null; // may not reflect clearance
+		// the solution is only copied in after validation, as the siblings
+		// still to come are copies of the mosaic as it was when branching
+		if (isCheckingAmbiguity() && branching.next < branching.alternatives) {
+			solution = rs.getMosaic();
+			nextChild(rs);
+			return;
+		}
 
-					if (!inValidationProcess()) {
-						children.clear();
-						setState(SUCCEEDED);
+		succeed(rs.getMosaic());
+	}
 
-						// Report updating
-						recursions = rs.recursions + 1;
-						steps += rs.steps;
-						backtracks += rs.backtracks;
-					}
-				});
+	/*
+	 * The failed child is gone by now, replaced by its next sibling if there
+	 * is one.
+	 */
+	private void childFailed() {
+		backtracks++;
 
-				rs.addStateListener(FAILED, algrithm -> {
-					children.remove(rs);
-					steps += rs.steps;
-					backtracks += rs.backtracks;
-				});
+		// last child
+		if (isSelfActive()) {
 
-				children.add(rs);
-			}
+			// succeed if in validation
+			if (solution != null)
+				succeed(solution);
+			else
+				setState(FAILED);
+		}
+	}
 
-			Consumer<RecursionSolver> recursionHandler = getOnRecursion();
-			if (recursionHandler != null) {
-				recursionHandler.accept(this);
-			}
+	private void succeed(Mosaic solution) {
+		for (int x = 0; x < getMosaic().length(); x++) {
+			getMosaic().setFill(x, solution.get(x).getFill());
 		}
+
+		children.clear();
+		branching = null;
+		markComplete();
+		setState(SUCCEEDED);
 	}
 
 	public boolean isRunnable() {
@@ -420,6 +730,28 @@ public class RecursionSolver extends AbstractSolveAlgorithm {
 		return loopbackEnhacement;
 	}
 
+	/*
+	 * Searches on the solver's own mosaic with an undo trail instead of a
+	 * child solver per branch. There are no children to step through then;
+	 * getActive() is always the solver itself.
+	 */
+	public void useSingleBoard(boolean single) {
+		State state = getState();
+		if (state != INITIALIZING && state != READY)
+			throw new IllegalStateException("State must be INITIALIZING or READY to toggle single-board search.");
+
+		singleBoard = single;
+
+		if (single && trail == null) {
+			trail = new int[64];
+			decisions = new ArrayList<>();
+		}
+	}
+
+	public boolean isUsingSingleBoard() {
+		return singleBoard;
+	}
+
 	public RecursionSolver getActive() {
 		if (isTerminated())
 			return null;
@@ -507,27 +839,35 @@ public class RecursionSolver extends AbstractSolveAlgorithm {
 			done();
 	}
 
-	private boolean inValidationProcess() {
-		return gridComplete() && isCheckingAmbiguity() && !isLeaf() && isRunnable();
-	}
-
 	private boolean gridComplete() {
-		return clues.isEmpty();
+		return unsolved == 0;
 	}
 
 	@Override
 	public RecursionReport getReport() {
-		throw new UnsupportedOperationException();
-		// return new RecursionReport(elapsed(), steps, recursions, backtracks);
+		return new RecursionReport(elapsed(), steps, recursions, backtracks);
+	}
+
+	private static class Decision {
+		final int trail;
+		final Coordinates point;
+		final int[] empties;
+		final int alternatives;
+		int next;
+		boolean succeeded;
+
+		Decision(int trail, Coordinates point, int[] empties, int alternatives) {
+			this.trail = trail;
+			this.point = point;
+			this.empties = empties;
+			this.alternatives = alternatives;
+		}
 	}
 
 	public static class Coordinates {
 		public final int x;
 		public final int y;
 
-		// internally mutable
-		private boolean solved;
-
 		public Coordinates(int x, int y) {
 			this.x = x;
 			this.y = y;
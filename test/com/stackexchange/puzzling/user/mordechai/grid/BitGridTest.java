@@ -0,0 +1,126 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BitGridTest {
+
+	// wide enough for rows of three words, the last one partial
+	private static BitGrid random(int width, int height, long seed) {
+		Random random = new Random(seed);
+		BitGrid grid = new BitGrid(width, height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				grid.set(x, y, random.nextInt(3) == 0);
+			}
+		}
+
+		return grid;
+	}
+
+	private static int naivePopcount(BitGrid grid, int x0, int y0, int width, int height) {
+		int count = 0;
+		for (int y = y0; y < y0 + height; y++) {
+			for (int x = x0; x < x0 + width; x++) {
+				if (grid.get(x, y))
+					count++;
+			}
+		}
+
+		return count;
+	}
+
+	@Test
+	public void shiftMovesFlagsAndClearsVacatedCells() {
+		int[][] shifts = { { 1, 0 }, { -1, 0 }, { 0, 2 }, { 0, -3 }, { 64, 1 }, { -65, -1 }, { 70, 0 }, { 200, 0 } };
+
+		for (int[] shift : shifts) {
+			BitGrid original = random(150, 9, 1);
+			BitGrid shifted = new BitGrid(original);
+			shifted.shift(shift[0], shift[1]);
+
+			for (int y = 0; y < 9; y++) {
+				for (int x = 0; x < 150; x++) {
+					int fromX = x - shift[0], fromY = y - shift[1];
+					boolean expected = fromX >= 0 && fromX < 150 && fromY >= 0 && fromY < 9
+							&& original.get(fromX, fromY);
+					assertEquals(expected, shifted.get(x, y), shift[0] + "," + shift[1] + " at " + x + "," + y);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void shiftKeepsPaddingClear() {
+		BitGrid grid = new BitGrid(70, 2);
+		grid.fill(true);
+		grid.shift(-1, 0);
+		grid.shift(1, 0);
+
+		assertEquals(2 * 69, grid.popcount());
+		assertFalse(grid.get(0, 0));
+	}
+
+	@Test
+	public void popcount() {
+		BitGrid grid = random(150, 7, 2);
+
+		assertEquals(naivePopcount(grid, 0, 0, 150, 7), grid.popcount());
+		assertEquals(naivePopcount(grid, 3, 1, 5, 4), grid.popcount(3, 1, 5, 4));
+		assertEquals(naivePopcount(grid, 60, 0, 70, 7), grid.popcount(60, 0, 70, 7));
+		assertEquals(naivePopcount(grid, 63, 2, 1, 1), grid.popcount(63, 2, 1, 1));
+		assertEquals(naivePopcount(grid, 0, 0, 150, 7), grid.popcount(0, 0, 150, 7));
+	}
+
+	@Test
+	public void sumSurroundingMatchesNeighborCounts() {
+		BitGrid grid = random(150, 6, 3);
+		ByteGrid sums = grid.sumSurrounding();
+
+		for (int y = 0; y < 6; y++) {
+			for (int x = 0; x < 150; x++) {
+				int x0 = Math.max(0, x - 1), y0 = Math.max(0, y - 1);
+				int x1 = Math.min(149, x + 1), y1 = Math.min(5, y + 1);
+
+				assertEquals(naivePopcount(grid, x0, y0, x1 - x0 + 1, y1 - y0 + 1), sums.get(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void fullNeighborhoodCountsNine() {
+		BitGrid grid = new BitGrid(3, 3);
+		grid.fill(true);
+
+		assertEquals(9, grid.sumSurrounding().get(1, 1));
+		assertEquals(4, grid.sumSurrounding().get(0, 0));
+	}
+
+	@Test
+	public void wordOperations() {
+		BitGrid a = random(100, 4, 4);
+		BitGrid b = random(100, 4, 5);
+
+		BitGrid and = new BitGrid(a);
+		and.and(b);
+		BitGrid or = new BitGrid(a);
+		or.or(b);
+		BitGrid not = new BitGrid(a);
+		not.not();
+
+		for (int i = 0; i < 400; i++) {
+			assertEquals(a.get(i) && b.get(i), and.get(i));
+			assertEquals(a.get(i) || b.get(i), or.get(i));
+			assertEquals(!a.get(i), not.get(i));
+		}
+		assertEquals(400 - a.popcount(), not.popcount());
+
+		not.xor(not);
+		assertTrue(not.isEmpty());
+	}
+}
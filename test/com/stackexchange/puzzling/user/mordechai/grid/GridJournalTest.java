@@ -0,0 +1,93 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class GridJournalTest {
+
+	@Test
+	public void logsEachCellOnceInOrderOfFirstChange() {
+		GridJournal journal = new GridJournal(10, 100);
+		journal.mark(75);
+		journal.mark(3);
+		journal.mark(75);
+		journal.mark(4, 70);
+
+		assertEquals(3, journal.size());
+		assertTrue(journal.isRowDirty(7));
+		assertTrue(journal.isRowDirty(70));
+		assertFalse(journal.isRowDirty(1));
+		assertArrayEquals(new int[] { 75, 3, 704 }, journal.drain());
+
+		assertTrue(journal.isEmpty());
+		assertFalse(journal.isMarked(75));
+		assertFalse(journal.isRowDirty(70));
+	}
+
+	@Test
+	public void gridWritesAreLogged() {
+		Grid<Integer> grid = new Grid<>(8, 6);
+		GridJournal journal = grid.startJournal();
+
+		grid.set(2, 1, 1);
+		grid.fill(0, 4, 2, 2, 0);
+		new Grid<Integer>(3, 1).copyTo(grid, 5, 5);
+
+		assertEquals(1 + 4 + 3, journal.size());
+		assertTrue(journal.isMarked(1 * 8 + 2));
+		assertTrue(journal.isMarked(5 * 8 + 1));
+		assertTrue(journal.isMarked(5 * 8 + 7));
+		assertFalse(journal.isMarked(5 * 8 + 4));
+
+		grid.stopJournal();
+		grid.set(0, 0, 1);
+		assertFalse(journal.isMarked(0));
+	}
+
+	@Test
+	public void viewsLogInGridCoordinates() {
+		Grid<Integer> grid = new Grid<>(8, 6);
+		GridJournal journal = grid.startJournal();
+
+		grid.view(3, 2, 4, 3).set(1, 1, 9);
+
+		assertEquals(1, journal.size());
+		assertTrue(journal.isMarked(3 * 8 + 4));
+	}
+
+	@Test
+	public void journalOnViewIgnoresWritesOutsideIt() {
+		Grid<Integer> grid = new Grid<>(8, 6);
+		Grid<Integer> view = grid.view(3, 2, 4, 3);
+		GridJournal journal = view.startJournal();
+
+		view.set(0, 0, 1);
+		view.view(0, 0, 2, 2).set(1, 1, 2);
+		grid.set(0, 0, 3);
+
+		assertArrayEquals(new int[] { 0, 5 }, journal.drain());
+	}
+
+	@Test
+	public void parallelFillsAreLogged() {
+		Grid<Integer> grid = new Grid<>(40, 2000);
+		GridJournal journal = grid.startJournal();
+
+		grid.parallelFill((x, y, old) -> x + y);
+		assertEquals(grid.length(), journal.size());
+		assertEquals(39 + 1999, (int) grid.get(39, 1999));
+
+		int[] cells = journal.drain();
+		for (int i = 0; i < cells.length; i++) {
+			assertEquals(i, cells[i]);
+		}
+
+		// journaled through the source
+		grid.transpose().parallelFill((x, y, old) -> 0);
+		assertEquals(grid.length(), journal.size());
+	}
+}
@@ -0,0 +1,72 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+public class GridParserTest {
+
+	private static Grid<String> csv(String text) throws IOException {
+		return GridParser.parseCSV(new StringReader(text), (x, y, token) -> token.toString());
+	}
+
+	@Test
+	public void plainCells() throws IOException {
+		Grid<String> grid = csv("a,b,c\r\nd,e,f\n");
+
+		assertEquals(3, grid.width());
+		assertEquals(2, grid.height());
+		assertEquals("f", grid.get(2, 1));
+	}
+
+	@Test
+	public void quotedCells() throws IOException {
+		Grid<String> grid = csv("\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\"\n\"\",x,y");
+
+		assertEquals(3, grid.width());
+		assertEquals(2, grid.height());
+		assertEquals("a,b", grid.get(0, 0));
+		assertEquals("say \"hi\"", grid.get(1, 0));
+		assertEquals("two\nlines", grid.get(2, 0));
+		assertEquals("", grid.get(0, 1));
+	}
+
+	@Test
+	public void emptyLinesAreEmptyRows() throws IOException {
+		Grid<String> grid = csv("a,b\n\nc\n");
+
+		assertEquals(2, grid.width());
+		assertEquals(3, grid.height());
+		assertNull(grid.get(0, 1));
+		assertEquals("c", grid.get(0, 2));
+		assertNull(grid.get(1, 2));
+	}
+
+	@Test
+	public void emptyInput() throws IOException {
+		assertNull(csv(""));
+	}
+
+	@Test
+	public void characters() throws IOException {
+		Grid<Character> grid = GridParser.parseCharacters(new StringReader("ab\r\nc\n"),
+				(x, y, token) -> token.charAt(0));
+
+		assertEquals(2, grid.width());
+		assertEquals(2, grid.height());
+		assertEquals('c', (char) grid.get(0, 1));
+		assertNull(grid.get(1, 1));
+	}
+
+	@Test
+	public void mapperSeesCoordinates() throws IOException {
+		Grid<String> grid = GridParser.parseCSV(new StringReader("a;b\nc;d"), ';', (x, y, token) -> x + "" + y);
+
+		assertEquals("10", grid.get(1, 0));
+		assertEquals("01", grid.get(0, 1));
+	}
+}
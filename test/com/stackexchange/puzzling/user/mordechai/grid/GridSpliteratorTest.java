@@ -0,0 +1,77 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class GridSpliteratorTest {
+
+	private static Grid<Integer> numbered(int width, int height) {
+		Grid<Integer> grid = new Grid<>(width, height);
+		grid.fill((x, y, old) -> y * width + x);
+
+		return grid;
+	}
+
+	@Test
+	public void splitsCoverEveryCellOnce() {
+		Grid<Integer> grid = numbered(300, 200);
+
+		List<GridSpliterator<Integer>> parts = new ArrayList<>();
+		parts.add(grid.spliterator());
+		for (int i = 0; i < parts.size(); i++) {
+			GridSpliterator<Integer> split = parts.get(i).trySplit();
+			if (split != null) {
+				parts.add(split);
+				i--;
+			}
+		}
+		assertTrue(parts.size() > 1);
+
+		BitSet seen = new BitSet();
+		long estimated = 0;
+		for (GridSpliterator<Integer> part : parts) {
+			estimated += part.estimateSize();
+			part.forEachRemaining((Integer value) -> {
+				assertTrue(!seen.get(value));
+				seen.set(value);
+			});
+		}
+
+		assertEquals(grid.length(), estimated);
+		assertEquals(grid.length(), seen.cardinality());
+	}
+
+	@Test
+	public void cellLocationsMatchValues() {
+		Grid<Integer> grid = numbered(70, 50);
+
+		grid.spliterator().forEachRemaining((Integer value, int x, int y) -> assertEquals(y * 70 + x, (int) value));
+	}
+
+	@Test
+	public void streamsAndParallelOperations() {
+		Grid<Integer> grid = numbered(300, 200);
+
+		assertEquals(grid.stream().collect(Collectors.toList()),
+				grid.parallelStream().collect(Collectors.toList()));
+		assertEquals(grid.count(v -> v % 7 == 0), grid.parallelCount(v -> v % 7 == 0));
+
+		grid.parallelFill((x, y, old) -> old * 2);
+		assertEquals(2 * (199 * 300 + 5), (int) grid.get(5, 199));
+	}
+
+	@Test
+	public void viewsStreamTheirOwnCells() {
+		Grid<Integer> view = numbered(10, 10).view(2, 3, 4, 2);
+
+		assertEquals(Arrays.asList(32, 33, 34, 35, 42, 43, 44, 45), view.stream().collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,105 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class GridTest {
+
+	private static Grid<Integer> numbered(int width, int height) {
+		Grid<Integer> grid = new Grid<>(width, height);
+		grid.fill((x, y, old) -> y * width + x);
+
+		return grid;
+	}
+
+	@Test
+	public void fillRectangle() {
+		Grid<Integer> grid = numbered(5, 4);
+		grid.fill(1, 1, 3, 2, -1);
+
+		for (int y = 0; y < 4; y++) {
+			for (int x = 0; x < 5; x++) {
+				boolean inside = x >= 1 && x < 4 && y >= 1 && y < 3;
+				assertEquals(inside ? -1 : y * 5 + x, (int) grid.get(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void copyRectangleToOffset() {
+		Grid<Integer> source = numbered(5, 4);
+		Grid<Integer> dest = new Grid<>(6, 6);
+		source.copyTo(1, 1, 2, 3, dest, 4, 2);
+
+		assertEquals(6, (int) dest.get(4, 2));
+		assertEquals(7, (int) dest.get(5, 2));
+		assertEquals(16, (int) dest.get(4, 4));
+		assertEquals(null, dest.get(3, 2));
+	}
+
+	@Test
+	public void copyOntoOverlappingPartOfItself() {
+		Grid<Integer> grid = numbered(6, 3);
+		grid.copyTo(0, 0, 4, 3, grid, 2, 0);
+
+		for (int y = 0; y < 3; y++) {
+			for (int x = 2; x < 6; x++) {
+				assertEquals(y * 6 + x - 2, (int) grid.get(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void primitiveGridsFillAndCopy() {
+		ByteGrid bytes = new ByteGrid(4, 4);
+		bytes.fill(1, 1, 2, 2, (byte) 7);
+		ByteGrid byteCopy = new ByteGrid(4, 4);
+		bytes.copyTo(0, 0, 4, 2, byteCopy, 0, 2);
+		assertEquals(7, byteCopy.get(1, 3));
+		assertEquals(0, byteCopy.get(0, 3));
+
+		IntGrid ints = new IntGrid(4, 4);
+		ints.fill(0, 3, 4, 1, 9);
+		ints.copyTo(0, 3, 4, 1, ints, 0, 0);
+		assertEquals(9, ints.get(2, 0));
+		assertEquals(0, ints.get(2, 1));
+	}
+
+	@Test
+	public void neighborhoodKernelsClipAtEdges() {
+		Grid<Integer> grid = numbered(4, 3);
+		ByteGrid bytes = ByteGrid.of(grid, v -> v);
+		IntGrid ints = IntGrid.of(grid, v -> v);
+		int[] counts = new int[2];
+
+		for (int y = 0; y < 3; y++) {
+			for (int x = 0; x < 4; x++) {
+				int sum = 0;
+				for (int value : grid.getSurroundingCells(x, y))
+					sum += value;
+
+				int length = grid.surroundingLength(x, y);
+				int[] visited = new int[1];
+				grid.forEachSurrounding(x, y, (value, i, j) -> visited[0] += value);
+
+				assertEquals(sum, visited[0]);
+				assertEquals(sum, bytes.sumSurrounding(x, y));
+				assertEquals(sum, ints.sumSurrounding(x, y));
+				assertEquals(length, ints.countSurrounding(x, y, v -> v >= 0));
+				assertEquals(length, grid.countSurrounding(x, y, v -> v % 2, counts));
+				assertEquals(length, counts[0] + counts[1]);
+				assertEquals(1, bytes.countSurrounding(x, y, (byte) (y * 4 + x)));
+			}
+		}
+	}
+
+	@Test
+	public void rectangleMustFit() {
+		Grid<Integer> grid = numbered(3, 3);
+
+		assertThrows(IllegalArgumentException.class, () -> grid.fill(2, 2, 2, 1, 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> grid.copyTo(0, 0, 3, 3, new Grid<>(2, 2), 0, 0));
+	}
+}
@@ -0,0 +1,41 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class PagedMatrixTest {
+
+	@Test
+	public void pagesAreAllocatedOnFirstWrite() {
+		PagedMatrix<Integer> matrix = new PagedMatrix<>(100, 100);
+		assertEquals(0, matrix.allocatedPages());
+
+		matrix.set(5, null);
+		assertEquals(0, matrix.allocatedPages());
+
+		matrix.set(5, 1);
+		matrix.set(6, 2);
+		matrix.set(9999, 3);
+		assertEquals(2, matrix.allocatedPages());
+
+		assertEquals(2, (int) matrix.get(6));
+		assertNull(matrix.get(7));
+	}
+
+	@Test
+	public void branchesDontSeeEachOthersWrites() {
+		Grid<Integer> grid = Grid.persistent(40, 30);
+		grid.fill((x, y, old) -> x * y);
+
+		Grid<Integer> branch = grid.branch();
+		branch.set(3, 4, -1);
+		grid.set(5, 6, -2);
+
+		assertEquals(12, (int) grid.get(3, 4));
+		assertEquals(-1, (int) branch.get(3, 4));
+		assertEquals(-2, (int) grid.get(5, 6));
+		assertEquals(30, (int) branch.get(5, 6));
+	}
+}
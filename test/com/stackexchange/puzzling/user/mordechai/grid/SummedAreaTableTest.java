@@ -0,0 +1,75 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SummedAreaTableTest {
+
+	private static int naiveSum(int[][] values, int x0, int y0, int width, int height) {
+		int sum = 0;
+		for (int y = y0; y < y0 + height; y++) {
+			for (int x = x0; x < x0 + width; x++) {
+				sum += values[y][x];
+			}
+		}
+
+		return sum;
+	}
+
+	@Test
+	public void sumsMatchThroughEditsAndRebuilds() {
+		Random random = new Random(1);
+		int width = 13, height = 9;
+		int[][] values = new int[height][width];
+
+		ByteGrid grid = new ByteGrid(width, height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				values[y][x] = random.nextInt(10);
+				grid.set(x, y, (byte) values[y][x]);
+			}
+		}
+		SummedAreaTable table = SummedAreaTable.of(grid);
+
+		// more edits than the pending limit, so the table rebuilds on the way
+		for (int i = 0; i < 200; i++) {
+			int x = random.nextInt(width), y = random.nextInt(height);
+			values[y][x] = random.nextInt(10);
+			table.set(x, y, values[y][x]);
+
+			int x0 = random.nextInt(width), y0 = random.nextInt(height);
+			int w = random.nextInt(width - x0 + 1), h = random.nextInt(height - y0 + 1);
+			assertEquals(naiveSum(values, x0, y0, w, h), table.sum(x0, y0, w, h));
+		}
+
+		assertEquals(naiveSum(values, 0, 0, width, height), table.total());
+		assertEquals(naiveSum(values, 0, 0, 2, 2), table.sumSurrounding(0, 0));
+		assertEquals(naiveSum(values, 4, 3, 3, 3), table.sumSurrounding(5, 4));
+	}
+
+	@Test
+	public void predicateCountsAndPointEdits() {
+		Grid<Integer> grid = new Grid<>(4, 4);
+		grid.fill((x, y, old) -> x + y);
+		SummedAreaTable table = SummedAreaTable.of(grid, v -> v % 2 == 0);
+
+		assertEquals(8, table.total());
+		table.add(1, 0, 1);
+		table.set(0, 0, 0);
+		assertEquals(8, table.total());
+		assertEquals(1, table.get(1, 0));
+		assertEquals(2, table.sum(0, 0, 2, 2));
+	}
+
+	@Test
+	public void rectangleMustFit() {
+		SummedAreaTable table = SummedAreaTable.of(new BitGrid(3, 3));
+
+		assertThrows(IndexOutOfBoundsException.class, () -> table.sum(2, 0, 2, 1));
+		assertThrows(IndexOutOfBoundsException.class, () -> table.sum(-1, 0, 1, 1));
+	}
+}
@@ -0,0 +1,101 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class TiledGridTest {
+
+	@Test
+	public void tilesAreAllocatedOnWrite() {
+		TiledGrid<Integer> grid = new TiledGrid<>(40, 24, 3);
+		TiledMatrix<Integer> matrix = (TiledMatrix<Integer>) grid.getMatrix();
+		assertTrue(grid.isEmpty());
+		assertEquals(0, matrix.allocatedTiles());
+
+		grid.set(9, 9, 1);
+		grid.set(10, 10, 2);
+		grid.set(39, 23, null);
+
+		assertFalse(grid.isEmpty());
+		assertEquals(1, matrix.allocatedTiles());
+		assertEquals(2, (int) grid.get(10, 10));
+		assertNull(grid.get(39, 23));
+	}
+
+	@Test
+	public void countIncludesEmptyTilesWhenNullMatches() {
+		TiledGrid<Integer> grid = new TiledGrid<>(40, 24, 3);
+		grid.set(1, 1, 5);
+		grid.set(33, 20, 6);
+
+		assertEquals(2, grid.count(Objects::nonNull));
+		assertEquals(40 * 24 - 2, grid.count(Objects::isNull));
+	}
+
+	@Test
+	public void tilesCoverTheGridClipped() {
+		TiledGrid<Integer> grid = new TiledGrid<>(20, 10, 3);
+		TiledGrid<Integer> view = grid.view(3, 2, 14, 7);
+
+		List<TiledGrid<Integer>> tiles = view.tiles().collect(Collectors.toList());
+		assertEquals(3 * 2, tiles.size());
+		assertEquals(5, tiles.get(0).width());
+		assertEquals(6, tiles.get(0).height());
+		assertEquals(14 * 7, tiles.stream().mapToInt(Grid::length).sum());
+	}
+
+	@Test
+	public void branchIsIndependent() {
+		TiledGrid<Integer> grid = new TiledGrid<>(20, 20, 2);
+		grid.fill((x, y, old) -> x == y ? x : null);
+
+		TiledGrid<Integer> branch = grid.view(2, 2, 10, 10).branch();
+		branch.set(0, 0, -1);
+
+		assertEquals(2, (int) grid.get(2, 2));
+		assertEquals(-1, (int) branch.get(0, 0));
+		assertEquals(5, (int) branch.get(3, 3));
+		assertNull(branch.get(3, 4));
+	}
+
+	@Test
+	public void countDoesNotTestNullWhenFullyPopulated() {
+		TiledGrid<Integer> grid = new TiledGrid<>(40, 24, 3);
+		grid.fill((x, y, old) -> x + y);
+
+		// would throw on null
+		assertEquals(480, grid.count(v -> v % 2 == 0));
+	}
+
+	@Test
+	public void fillingWithNullReleasesWholeTiles() {
+		TiledGrid<Integer> grid = new TiledGrid<>(20, 12, 3);
+		TiledMatrix<Integer> matrix = (TiledMatrix<Integer>) grid.getMatrix();
+		grid.fill(1);
+		assertEquals(6, matrix.allocatedTiles());
+
+		// covers the left column of tiles, the bottom one clipped by the grid
+		// edge, and part of the middle column
+		TiledGrid<Integer> view = grid.view(0, 0, 12, 12);
+		GridJournal journal = view.startJournal();
+		view.fill((Integer) null);
+
+		assertEquals(4, matrix.allocatedTiles());
+		assertEquals(12 * 12, journal.size());
+		assertEquals(20 * 12 - 12 * 12, grid.count(Objects::nonNull));
+		assertNull(grid.get(11, 11));
+		assertEquals(1, (int) grid.get(12, 11));
+
+		grid.fill((Integer) null);
+		assertEquals(0, matrix.allocatedTiles());
+		assertTrue(grid.isEmpty());
+	}
+}
@@ -0,0 +1,106 @@
+package com.stackexchange.puzzling.user.mordechai.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class TransformedGridTest {
+
+	private static Grid<Integer> numbered(int width, int height) {
+		Grid<Integer> grid = new Grid<>(width, height);
+		grid.fill((x, y, old) -> y * width + x);
+
+		return grid;
+	}
+
+	@Test
+	public void geometricViews() {
+		Grid<Integer> grid = numbered(4, 3);
+
+		Grid<Integer> transposed = grid.transpose();
+		assertEquals(3, transposed.width());
+		assertEquals(4, transposed.height());
+		assertEquals(grid.get(3, 1), transposed.get(1, 3));
+
+		// clockwise: the bottom left corner comes up top
+		Grid<Integer> rotated = grid.rotate(1);
+		assertEquals(3, rotated.width());
+		assertEquals(grid.get(0, 2), rotated.get(0, 0));
+		assertEquals(grid.get(3, 2), rotated.get(0, 3));
+
+		assertEquals(grid.get(3, 0), grid.mirror().get(0, 0));
+		assertEquals(grid.get(0, 2), grid.flip().get(0, 0));
+	}
+
+	@Test
+	public void composedTransformsMatchSingleOnes() {
+		Grid<Integer> grid = numbered(5, 3);
+
+		assertEquals(grid.rotate(2).toString(), grid.rotate(1).rotate(1).toString());
+		assertEquals(grid.toString(), grid.mirror().mirror().toString());
+		assertEquals(grid.rotate(2).toString(), grid.mirror().flip().toString());
+		assertEquals(grid.transpose().view(1, 1, 2, 2).toString(), grid.view(1, 1, 2, 2).transpose().toString());
+	}
+
+	@Test
+	public void writesReachTheSource() {
+		Grid<Integer> grid = numbered(4, 3);
+
+		grid.rotate(3).set(0, 0, -1);
+		assertEquals(-1, (int) grid.get(3, 0));
+
+		grid.view(0, 0, 4, 1).copyTo(grid.flip().view(0, 0, 4, 1));
+		assertEquals(grid.get(2, 0), grid.get(2, 2));
+	}
+
+	@Test
+	public void eightDistinctSymmetries() {
+		Grid<Integer> grid = numbered(3, 3);
+		List<Grid<Integer>> images = grid.symmetries();
+
+		Set<String> distinct = new HashSet<>();
+		for (Grid<Integer> image : images) {
+			distinct.add(image.toString());
+		}
+
+		assertEquals(8, images.size());
+		assertEquals(8, distinct.size());
+		assertTrue(images.get(0) == grid);
+	}
+
+	@Test
+	public void journalOnViewLogsInViewCoordinates() {
+		Grid<Integer> grid = new Grid<>(4, 3);
+		GridJournal sourceJournal = grid.startJournal();
+
+		Grid<Integer> view = grid.transpose();
+		GridJournal journal = view.startJournal();
+		assertEquals(journal, view.getJournal());
+
+		view.set(2, 1, 7);
+		assertEquals(7, (int) grid.get(1, 2));
+
+		assertEquals(1, journal.size());
+		assertTrue(journal.isMarked(1 * view.width() + 2));
+		assertTrue(sourceJournal.isMarked(2 * grid.width() + 1));
+	}
+
+	@Test
+	public void viewsOfJournaledViewLogToIt() {
+		Grid<Integer> grid = new Grid<>(4, 3);
+		Grid<Integer> view = grid.rotate(1);
+		GridJournal journal = view.startJournal();
+
+		view.view(1, 1, 2, 2).set(0, 0, 5);
+		view.mirror().set(0, 0, 6);
+
+		assertEquals(2, journal.size());
+		assertTrue(journal.isMarked(1 * view.width() + 1));
+		assertTrue(journal.isMarked(view.width() - 1));
+	}
+}
@@ -0,0 +1,76 @@
+package com.stackexchange.puzzling.user.mordechai.mosaic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ClueIndexTest {
+
+	// clues at (1,0) = 2, (4,1) = 0 and (0,3) = 5 on a 6x4 mosaic
+	private static Mosaic sample() {
+		Mosaic mosaic = new Mosaic(6, 4);
+		mosaic.get(1, 0).setClue(2);
+		mosaic.get(4, 1).setClue(0);
+		mosaic.get(0, 3).setClue(5);
+
+		return mosaic;
+	}
+
+	@Test
+	public void cluesInRowMajorOrder() {
+		ClueIndex index = ClueIndex.of(sample());
+
+		assertEquals(3, index.size());
+		assertEquals(4, index.x(1));
+		assertEquals(1, index.y(1));
+		assertEquals(10, index.linear(1));
+		assertEquals(5, index.clue(2));
+
+		assertEquals(1, index.find(4, 1));
+		assertTrue(index.find(2, 2) < 0);
+		assertEquals(2, index.clueAt(1, 0));
+		assertEquals(-1, index.clueAt(2, 0));
+	}
+
+	@Test
+	public void cluesAround() {
+		ClueIndex index = ClueIndex.of(sample());
+		int[] around = new int[9];
+
+		assertEquals(1, index.cluesAround(0, 0, around));
+		assertEquals(0, around[0]);
+
+		assertEquals(1, index.cluesAround(5, 2, around));
+		assertEquals(1, around[0]);
+
+		assertEquals(0, index.cluesAround(2, 3, around));
+		assertFalse(index.hasClueAround(2, 3));
+		assertTrue(index.hasClueAround(1, 2));
+	}
+
+	@Test
+	public void coverage() {
+		ClueIndex index = ClueIndex.of(sample());
+
+		assertTrue(index.coverage().get(5, 0));
+		assertFalse(index.coverage().get(2, 3));
+		assertEquals(2 * 6 + 2, index.firstUncovered());
+
+		Mosaic mosaic = sample();
+		mosaic.get(2, 2).setClue(1);
+		mosaic.get(5, 3).setClue(1);
+		assertEquals(-1, ClueIndex.of(mosaic).firstUncovered());
+	}
+
+	@Test
+	public void snapshotIgnoresLaterChanges() {
+		Mosaic mosaic = sample();
+		ClueIndex index = ClueIndex.of(mosaic);
+		mosaic.get(1, 0).setClue(-1);
+
+		assertEquals(3, index.size());
+		assertEquals(2, index.clueAt(1, 0));
+	}
+}
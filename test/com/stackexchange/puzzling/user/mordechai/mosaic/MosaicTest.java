@@ -0,0 +1,109 @@
+package com.stackexchange.puzzling.user.mordechai.mosaic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class MosaicTest {
+
+	private static Mosaic sample() {
+		Mosaic mosaic = new Mosaic(6, 5);
+		for (int i = 0; i < mosaic.length(); i += 3) {
+			mosaic.setPixel(i, true);
+		}
+		mosaic.fillClues();
+
+		return mosaic;
+	}
+
+	// hash of the same cells, computed from scratch on copies so that the
+	// clues keep their owner
+	private static long freshHash(Mosaic mosaic) {
+		return new Mosaic(mosaic.grid().branch(Clue::copy)).hash();
+	}
+
+	@Test
+	public void hashFollowsSetters() {
+		Mosaic mosaic = sample();
+		mosaic.hash();
+
+		mosaic.setFill(4, Fill.X);
+		mosaic.setClue(5, -1);
+		mosaic.setPixel(6, true);
+
+		assertEquals(freshHash(mosaic), mosaic.hash());
+	}
+
+	@Test
+	public void hashDependsOnContentOnly() {
+		Mosaic mosaic = sample();
+		long hash = mosaic.hash();
+
+		mosaic.setFill(4, Fill.FILLED);
+		assertNotEquals(hash, mosaic.hash());
+
+		mosaic.setFill(4, Fill.EMPTY);
+		assertEquals(hash, mosaic.hash());
+		assertEquals(hash, sample().hash());
+	}
+
+	@Test
+	public void copiesKeepTheirHash() {
+		Mosaic mosaic = sample();
+		mosaic.hash();
+
+		Mosaic copy = new Mosaic(mosaic);
+		assertEquals(mosaic.hash(), copy.hash());
+
+		copy.setClue(0, 8);
+		assertEquals(freshHash(copy), copy.hash());
+		assertEquals(freshHash(mosaic), mosaic.hash());
+	}
+
+	@Test
+	public void hashNoticesDirectClueEdits() {
+		Mosaic mosaic = sample();
+		mosaic.hash();
+
+		mosaic.get(7).setFill(Fill.FILLED);
+
+		assertEquals(freshHash(mosaic), mosaic.hash());
+	}
+
+	@Test
+	public void hashNoticesGridWrites() {
+		Mosaic mosaic = sample();
+		mosaic.hash();
+
+		mosaic.grid().set(5, mosaic.get(0));
+
+		assertEquals(freshHash(mosaic), mosaic.hash());
+	}
+
+	@Test
+	public void mosaicsSharingCluesBothNoticeEdits() {
+		Mosaic mosaic = sample();
+		Mosaic shared = new Mosaic(mosaic.grid());
+		mosaic.hash();
+		shared.hash();
+
+		mosaic.get(3).setClue(7);
+		shared.get(4).setFill(Fill.X);
+
+		assertEquals(freshHash(mosaic), mosaic.hash());
+		assertEquals(mosaic.hash(), shared.hash());
+	}
+
+	@Test
+	public void canonicalHashLeavesOwnershipAlone() {
+		Mosaic mosaic = sample();
+		long hash = mosaic.hash();
+		mosaic.canonicalHash();
+
+		mosaic.get(2).setClue(8);
+
+		assertNotEquals(hash, mosaic.hash());
+		assertEquals(freshHash(mosaic), mosaic.hash());
+	}
+}
@@ -0,0 +1,79 @@
+package com.stackexchange.puzzling.user.mordechai.mosaic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+
+public class PackedClueTest {
+
+	@Test
+	public void everyClueRoundTrips() {
+		for (Fill fill : Fill.values()) {
+			for (int clue = -1; clue <= 9; clue++) {
+				for (boolean pixel : new boolean[] { false, true }) {
+					byte packed = PackedClue.pack(fill, clue, pixel);
+					Clue unpacked = PackedClue.unpack(packed);
+
+					assertTrue(PackedClue.isValid(packed));
+					assertEquals(fill, unpacked.getFill());
+					assertEquals(clue, unpacked.getClue());
+					assertEquals(pixel, unpacked.isPixel());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void invalidBytesAreRejected() {
+		byte[] invalid = { 0x0B, 0x0F, 0x30, (byte) 0x80, (byte) 0xFF };
+
+		for (byte packed : invalid) {
+			assertFalse(PackedClue.isValid(packed));
+			assertThrows(IllegalArgumentException.class, () -> PackedClue.unpack(packed));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> PackedClue.clue((byte) 0x0B));
+		assertThrows(IllegalArgumentException.class, () -> PackedClue.fill((byte) 0x30));
+	}
+
+	@Test
+	public void savedMosaicsLoadBack() throws IOException {
+		Mosaic mosaic = new Mosaic(5, 3);
+		mosaic.setPixel(7, true);
+		mosaic.fillClues();
+		mosaic.setFill(2, Fill.X);
+
+		Path file = Files.createTempFile("mosaic", ".bin");
+		try {
+			mosaic.savePacked(file);
+			assertEquals(mosaic.toCSV(), Mosaic.loadPacked(file).toCSV());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void corruptCellsFailToLoad() throws IOException {
+		Path file = Files.createTempFile("mosaic", ".bin");
+		try {
+			new Mosaic(5, 3).savePacked(file);
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[] { 0x30 }), 8 + 6);
+			}
+
+			assertThrows(IOException.class, () -> Mosaic.loadPacked(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,296 @@
+package com.stackexchange.puzzling.user.mordechai.mosaic.solvers;
+
+import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardState.CANCELLED;
+import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardState.PAUSED;
+import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardState.READY;
+import static com.stackexchange.puzzling.user.mordechai.mosaic.solvers.StandardState.SUCCEEDED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.stackexchange.puzzling.user.mordechai.grid.Grid;
+import com.stackexchange.puzzling.user.mordechai.mosaic.Clue;
+import com.stackexchange.puzzling.user.mordechai.mosaic.Fill;
+import com.stackexchange.puzzling.user.mordechai.mosaic.Mosaic;
+
+public class RecursionSolverTest {
+
+	// the bundled presets that solve in well under a second
+	private static final int[] PRESETS = { 1, 2, 3, 4, 7, 8, 10 };
+
+	private static Mosaic preset(int preset) throws IOException {
+		try (InputStream in = Mosaic.class.getResourceAsStream("fx/resources/presets/Preset " + preset + ".csv")) {
+			return Mosaic.loadCSV(in);
+		}
+	}
+
+	private static RecursionSolver solver(Mosaic mosaic, boolean checkAmbiguity, boolean singleBoard) {
+		RecursionSolver solver = new RecursionSolver(mosaic);
+		solver.checkAmbiguity(checkAmbiguity);
+		solver.useSingleBoard(singleBoard);
+
+		return solver;
+	}
+
+	private static String fills(Mosaic mosaic) {
+		return mosaic.toCSV(true, false, false);
+	}
+
+	// every cell decided, and every clue sees as many filled cells as it says
+	private static void assertSolved(Mosaic mosaic) {
+		Grid<Clue> grid = mosaic.grid();
+
+		for (int y = 0; y < grid.height(); y++) {
+			for (int x = 0; x < grid.width(); x++) {
+				Clue clue = grid.get(x, y);
+				assertNotEquals(Fill.EMPTY, clue.getFill());
+
+				if (clue.getClue() >= 0)
+					assertEquals(clue.getClue(), grid.countSurrounding(x, y, c -> c.getFill() == Fill.FILLED));
+			}
+		}
+	}
+
+	// children that are not yet done, over the whole tree
+	private static int maxLiveChildren(RecursionSolver solver) {
+		int live = 0, max = 0;
+		for (RecursionSolver child : solver.getChildren()) {
+			if (!child.isTerminated())
+				live++;
+			max = Math.max(max, maxLiveChildren(child));
+		}
+
+		return Math.max(live, max);
+	}
+
+	private static int readySolvers(RecursionSolver solver) {
+		int ready = solver.getState() == READY ? 1 : 0;
+		for (RecursionSolver child : solver.getChildren()) {
+			ready += readySolvers(child);
+		}
+
+		return ready;
+	}
+
+	@Test
+	public void presetsSolveInEveryMode() throws IOException {
+		for (int preset : PRESETS) {
+			Mosaic plain = preset(preset);
+			RecursionSolver solver = solver(plain, false, false);
+			solver.start();
+			assertEquals(SUCCEEDED, solver.getState(), "preset " + preset);
+			assertSolved(plain);
+
+			for (int mode = 1; mode < 4; mode++) {
+				Mosaic mosaic = preset(preset);
+				solver = solver(mosaic, (mode & 1) != 0, (mode & 2) != 0);
+				solver.start();
+
+				assertEquals(SUCCEEDED, solver.getState(), "preset " + preset + ", mode " + mode);
+				assertEquals(fills(plain), fills(mosaic), "preset " + preset + ", mode " + mode);
+			}
+		}
+	}
+
+	@Test
+	public void propagationAloneSolvesSimplePresets() throws IOException {
+		for (int preset : new int[] { 1, 2 }) {
+			RecursionSolver solver = solver(preset(preset), true, false);
+			solver.start();
+
+			assertEquals(SUCCEEDED, solver.getState());
+			assertEquals(0, solver.getReport().getRecursions());
+			assertEquals(0, solver.getReport().getBacktracks());
+		}
+	}
+
+	@Test
+	public void ambiguityLeavesTheSameBoardInBothModes() {
+		String[] boards = new String[2];
+
+		for (int mode = 0; mode < 2; mode++) {
+			// two of the four cells filled, in any of six ways
+			Mosaic mosaic = new Mosaic(2, 2);
+			mosaic.setClue(0, 2);
+			RecursionSolver solver = solver(mosaic, true, mode == 1);
+
+			AmbigiousException e = assertThrows(AmbigiousException.class, solver::start);
+			assertNotEquals(fills(e.getMosaic()), fills(e.getOtherMosaic()));
+			boards[mode] = fills(mosaic);
+		}
+
+		assertEquals(fills(new Mosaic(2, 2)), boards[0]);
+		assertEquals(boards[0], boards[1]);
+	}
+
+	@Test
+	public void childrenAreCreatedOneAtATime() throws IOException {
+		RecursionSolver solver = solver(preset(8), true, false);
+		boolean branched = false;
+
+		while (!solver.isTerminated()) {
+			solver.step();
+
+			branched |= !solver.getChildren().isEmpty();
+			assertTrue(maxLiveChildren(solver) <= 1);
+		}
+
+		assertTrue(branched);
+		assertEquals(SUCCEEDED, solver.getState());
+	}
+
+	@Test
+	public void ambiguityLeavesNoSolverReady() {
+		Mosaic mosaic = new Mosaic(2, 2);
+		mosaic.setClue(0, 2);
+		RecursionSolver solver = solver(mosaic, true, false);
+
+		assertThrows(AmbigiousException.class, solver::start);
+		assertEquals(0, readySolvers(solver));
+	}
+
+	@Test
+	public void steppingMatchesARun() throws IOException {
+		for (boolean singleBoard : new boolean[] { false, true }) {
+			Mosaic run = preset(10);
+			RecursionSolver solver = solver(run, true, singleBoard);
+			solver.start();
+
+			Mosaic stepped = preset(10);
+			RecursionSolver stepper = solver(stepped, true, singleBoard);
+			while (!stepper.isTerminated()) {
+				stepper.step();
+
+				if (!stepper.isTerminated()) {
+					assertEquals(PAUSED, stepper.getState());
+					assertNotEquals(null, stepper.getActive());
+				}
+			}
+
+			assertEquals(SUCCEEDED, stepper.getState());
+			assertEquals(fills(run), fills(stepped));
+			assertEquals(solver.getReport().getSteps(), stepper.getReport().getSteps());
+		}
+	}
+
+	@Test
+	public void pauseAndResume() throws IOException {
+		Mosaic run = preset(8);
+		solver(run, true, false).start();
+
+		Mosaic paused = preset(8);
+		RecursionSolver solver = solver(paused, true, false);
+		int[] pauses = { 0 };
+		solver.onRecursion(s -> {
+			if (pauses[0]++ == 0)
+				solver.pause();
+		});
+
+		solver.start();
+		assertEquals(PAUSED, solver.getState());
+		assertThrows(IllegalStateException.class, solver::pause);
+
+		solver.resume();
+		assertEquals(SUCCEEDED, solver.getState());
+		assertEquals(fills(run), fills(paused));
+		assertThrows(IllegalStateException.class, solver::resume);
+	}
+
+	@Test
+	public void cancelEndsTheSearch() throws IOException {
+		RecursionSolver solver = solver(preset(8), true, false);
+		for (int i = 0; i < 1000; i++) {
+			solver.step();
+		}
+
+		solver.cancel();
+		assertEquals(CANCELLED, solver.getState());
+		assertTrue(solver.isTerminated());
+		assertTrue(solver.getChildren().isEmpty());
+		assertThrows(IllegalStateException.class, solver::step);
+		assertThrows(IllegalStateException.class, solver::resume);
+	}
+
+	// preset 10 with the clue at index raised by one, or null if not a 1 to 8
+	private static Mosaic raised(int index) throws IOException {
+		Mosaic mosaic = preset(10);
+		int clue = mosaic.get(index).getClue();
+		if (clue < 1 || clue > 8)
+			return null;
+
+		mosaic.setClue(index, clue + 1);
+		return mosaic;
+	}
+
+	@Test
+	public void contradictionPointsAtABrokenClue() throws IOException {
+		// the first raised clue that leaves no solution at all
+		int index = 0;
+		for (;; index++) {
+			Mosaic mosaic = raised(index);
+			if (mosaic == null)
+				continue;
+
+			try {
+				solver(mosaic, false, false).start();
+			} catch (ContradictionException e) {
+				break;
+			}
+		}
+
+		int[] points = new int[4];
+		for (int mode = 0; mode < 2; mode++) {
+			RecursionSolver solver = solver(raised(index), true, mode == 1);
+			ContradictionException e = assertThrows(ContradictionException.class, solver::start);
+
+			Grid<Clue> grid = e.getMosaic().grid();
+			int clue = grid.get(e.getX(), e.getY()).getClue();
+			int filled = grid.countSurrounding(e.getX(), e.getY(), c -> c.getFill() == Fill.FILLED);
+			int open = grid.countSurrounding(e.getX(), e.getY(), c -> c.getFill() == Fill.EMPTY);
+			assertTrue(clue >= 0);
+			assertTrue(filled > clue || filled + open < clue);
+
+			points[2 * mode] = e.getX();
+			points[2 * mode + 1] = e.getY();
+		}
+
+		assertEquals(points[0], points[2]);
+		assertEquals(points[1], points[3]);
+	}
+
+	@Test
+	public void ambiguityPointsAtTheDecision() {
+		for (int mode = 0; mode < 2; mode++) {
+			// two clues over the same six cells, three of which are filled
+			Mosaic mosaic = new Mosaic(3, 2);
+			mosaic.setClue(1, 3);
+			mosaic.setClue(4, 3);
+			RecursionSolver solver = solver(mosaic, true, mode == 1);
+
+			AmbigiousException e = assertThrows(AmbigiousException.class, solver::start);
+			assertEquals(1, e.getX());
+			assertEquals(0, e.getY());
+
+			for (Mosaic solution : new Mosaic[] { e.getMosaic(), e.getOtherMosaic() }) {
+				assertEquals(3, solution.grid().countSurrounding(1, 0, c -> c.getFill() == Fill.FILLED));
+			}
+		}
+	}
+
+	@Test
+	public void uncoveredCellsAreReported() {
+		Mosaic mosaic = new Mosaic(4, 3);
+		mosaic.setClue(0, 1);
+		mosaic.setClue(mosaic.grid().toLinear(3, 2), 0);
+
+		NoClueException e = assertThrows(NoClueException.class, () -> new RecursionSolver(mosaic));
+		assertEquals(2, e.getX());
+		assertEquals(0, e.getY());
+	}
+}